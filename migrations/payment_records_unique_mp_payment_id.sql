@@ -0,0 +1,13 @@
+-- Índice único sobre payment_records.mp_payment_id (idempotencia de pagos de Mercado Pago) (MySQL 5.7/8.0)
+-- NOTA: Realiza backup antes de ejecutar.
+
+-- 1. Eliminar pagos de MP duplicados por notificaciones repetidas (se conserva el primero de cada mp_payment_id)
+DELETE p FROM payment_records p
+  JOIN payment_records keep
+    ON keep.mp_payment_id = p.mp_payment_id
+   AND keep.id < p.id
+ WHERE p.mp_payment_id IS NOT NULL;
+
+-- 2. Índice único (los pagos en efectivo/transferencia tienen mp_payment_id NULL y no se ven afectados)
+CREATE UNIQUE INDEX uq_payment_mp_payment_id
+  ON payment_records(mp_payment_id);
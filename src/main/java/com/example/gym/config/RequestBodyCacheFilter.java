@@ -1,9 +1,11 @@
 package com.example.gym.config;
 
+import com.example.gym.security.RouteClassifier;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.ContentCachingRequestWrapper;
@@ -12,16 +14,31 @@ import java.io.IOException;
 
 /**
  * Filtro que cachea el cuerpo del request para permitir múltiples lecturas.
- * Necesario para validar la firma del webhook de Mercado Pago.
+ * Solo se aplica al webhook de Mercado Pago, que necesita el body crudo para validar la firma;
+ * el resto de los requests (incluidas las subidas multipart) no se copian en memoria.
  */
 @Component
 public class RequestBodyCacheFilter extends OncePerRequestFilter {
-    
+
+    @Value("${mercadopago.webhook-max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RouteClassifier.classify(request).bufferBody();
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        // Envuelve el request para permitir releer el body
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request);
+        // Un body más grande que el límite no podría validarse completo: se rechaza sin leerlo
+        long contentLength = request.getContentLengthLong();
+        if (contentLength > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        // Envuelve el request para permitir releer el body, hasta el límite configurado
+        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper(request, maxBodyBytes);
         filterChain.doFilter(wrappedRequest, response);
     }
 }
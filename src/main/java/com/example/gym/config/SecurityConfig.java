@@ -47,6 +47,7 @@ public class SecurityConfig {
                 .requestMatchers("/webhooks/mercadopago", "/api/mp/oauth/callback",
                                  "/api/google-sheets/oauth/callback").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/actuator/metrics", "/actuator/metrics/**").hasRole("SUPER_ADMIN")
                 .anyRequest().authenticated()
             )
             .httpBasic(AbstractHttpConfigurer::disable)
@@ -2,6 +2,7 @@ package com.example.gym.controller;
 
 import com.example.gym.model.Tenant;
 import com.example.gym.repository.TenantRepository;
+import com.example.gym.tenant.TenantRegistry;
 import com.example.gym.tenant.TenantSwitchRepository;
 import com.example.gym.service.EmailService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,7 @@ public class AdminTenantController {
     @Autowired private TenantRepository tenantRepository;
     @Autowired private TenantSwitchRepository switchRepository;
     @Autowired private EmailService emailService;
+    @Autowired private TenantRegistry tenantRegistry;
 
     /** Lista todos los gimnasios */
     @GetMapping
@@ -49,7 +51,15 @@ public class AdminTenantController {
                 .notes(body.get("notes"))
                 .status("ACTIVE")
                 .build();
-        return ResponseEntity.ok(toDto(tenantRepository.save(t)));
+        Tenant saved = tenantRepository.save(t);
+        tenantRegistry.update(saved);
+        return ResponseEntity.ok(toDto(saved));
+    }
+
+    /** Requests aceptados por gimnasio desde que arrancó la instancia */
+    @GetMapping("/request-counts")
+    public ResponseEntity<?> requestCounts() {
+        return ResponseEntity.ok(tenantRegistry.requestCounts());
     }
 
     /** Detalle de un gimnasio */
@@ -79,7 +89,7 @@ public class AdminTenantController {
         return tenantRepository.findById(id).map(t -> {
             t.setStatus("SUSPENDED");
             if (body != null && body.get("notes") != null) t.setNotes(body.get("notes"));
-            tenantRepository.save(t);
+            tenantRegistry.update(tenantRepository.save(t));
             return ResponseEntity.ok(Map.of("message", "Gimnasio suspendido"));
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -89,7 +99,7 @@ public class AdminTenantController {
     public ResponseEntity<?> activate(@PathVariable Long id) {
         return tenantRepository.findById(id).map(t -> {
             t.setStatus("ACTIVE");
-            tenantRepository.save(t);
+            tenantRegistry.update(tenantRepository.save(t));
             return ResponseEntity.ok(Map.of("message", "Gimnasio activado"));
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -99,7 +109,9 @@ public class AdminTenantController {
     public ResponseEntity<?> updateStatus(@PathVariable Long id, @RequestBody Map<String, String> body) {
         return tenantRepository.findById(id).map(t -> {
             t.setStatus(body.getOrDefault("status", t.getStatus()));
-            return ResponseEntity.ok(toDto(tenantRepository.save(t)));
+            Tenant saved = tenantRepository.save(t);
+            tenantRegistry.update(saved);
+            return ResponseEntity.ok(toDto(saved));
         }).orElse(ResponseEntity.notFound().build());
     }
 
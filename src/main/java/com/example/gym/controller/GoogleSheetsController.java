@@ -4,6 +4,7 @@ import com.example.gym.dto.GoogleSheetsConfigRequest;
 import com.example.gym.dto.GoogleSheetsPreviewResponse;
 import com.example.gym.service.GoogleSheetsCredentialService;
 import com.example.gym.service.GoogleSheetsService;
+import com.example.gym.service.OutboundHttpClient;
 import com.example.gym.tenant.TenantContext;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -21,7 +22,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -55,7 +55,9 @@ public class GoogleSheetsController {
     @Value("${google.frontend-url:http://localhost:5173}")
     private String frontendUrl;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Autowired
+    private OutboundHttpClient outboundHttpClient;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     // ==================== STATUS ====================
@@ -142,7 +144,7 @@ public class GoogleSheetsController {
                     .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
                     .build();
 
-            HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
             logger.info("[Google Sheets] Respuesta de token — status={}", resp.statusCode());
 
             if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
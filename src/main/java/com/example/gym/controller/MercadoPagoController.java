@@ -9,16 +9,19 @@ import com.example.gym.repository.MembershipPlanRepository;
 import com.example.gym.repository.PaymentRecordRepository;
 import com.example.gym.repository.UserRepository;
 import com.example.gym.service.MercadoPagoCredentialService;
+import com.example.gym.service.OutboundHttpClient;
 import com.example.gym.service.PaymentService;
+import com.example.gym.service.PaymentStatusCache;
+import com.example.gym.service.WebhookInboxService;
 import com.example.gym.tenant.TenantContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -55,6 +58,15 @@ public class MercadoPagoController {
     @Autowired
     private MercadoPagoCredentialService mpCredentials;
 
+    @Autowired
+    private OutboundHttpClient outboundHttpClient;
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @Autowired
+    private PaymentStatusCache paymentStatusCache;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -117,15 +129,24 @@ public class MercadoPagoController {
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> resp = client.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.MERCADOPAGO, req);
             Map<String, Object> mpResp = mapper.readValue(resp.body(), new TypeReference<Map<String, Object>>(){});
 
             if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
                 String status = String.valueOf(mpResp.get("status"));
                 String paymentId = String.valueOf(mpResp.get("id"));
+                // El frontend va a consultar este pago con verify: queda cacheado
+                paymentStatusCache.put(paymentId, mpResp);
                 if ("approved".equalsIgnoreCase(status)) {
-                    paymentService.activateSubscription(externalRef, paymentId);
+                    try {
+                        paymentService.activateSubscription(externalRef, paymentId);
+                    } catch (DataIntegrityViolationException e) {
+                        // El webhook registró el mismo pago al mismo tiempo: la suscripción ya quedó activa
+                        if (!paymentService.isPaymentProcessed(paymentId)) {
+                            throw e;
+                        }
+                        logger.info("[MP/process] Pago {} ya registrado por otra entrega", paymentId);
+                    }
                 }
                 return ResponseEntity.ok(Map.of(
                     "status", status,
@@ -163,27 +184,17 @@ public class MercadoPagoController {
     @GetMapping("/api/payments/verify/{paymentId}")
     public ResponseEntity<?> verifyPayment(@PathVariable String paymentId) {
         try {
-            HttpRequest reqPayment = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.mercadopago.com/v1/payments/" + paymentId))
-                .header("Authorization", "Bearer " + mpCredentials.getAccessToken())
-                .GET()
-                .build();
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> resp = client.send(reqPayment, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-            if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                ObjectMapper mapper = new ObjectMapper();
-                Map<String, Object> payment = mapper.readValue(resp.body(), new TypeReference<Map<String, Object>>(){});
-                return ResponseEntity.ok(Map.of(
-                    "id", payment.get("id"),
-                    "status", payment.get("status"),
-                    "status_detail", payment.get("status_detail"),
-                    "transaction_amount", payment.get("transaction_amount"),
-                    "external_reference", payment.get("external_reference")
-                ));
-            } else {
-                return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
-                    .body("MP API error: " + resp.statusCode());
-            }
+            Map<String, Object> payment = paymentStatusCache.get(paymentId);
+            return ResponseEntity.ok(Map.of(
+                "id", payment.get("id"),
+                "status", payment.get("status"),
+                "status_detail", payment.get("status_detail"),
+                "transaction_amount", payment.get("transaction_amount"),
+                "external_reference", payment.get("external_reference")
+            ));
+        } catch (PaymentStatusCache.LookupException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                .body("MP API error: " + e.getStatusCode());
         } catch (Exception e) {
             logger.error("[MP/verify] Error verificando pago {}: {}", paymentId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -281,8 +292,7 @@ public class MercadoPagoController {
                 .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
                 .build();
 
-            HttpClient client = HttpClient.newHttpClient();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> response = outboundHttpClient.send(OutboundHttpClient.MERCADOPAGO, request);
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 Map<String, Object> respBody = mapper.readValue(response.body(), new TypeReference<Map<String, Object>>(){});
                 Map<String, Object> resp = new HashMap<>();
@@ -337,43 +347,26 @@ public class MercadoPagoController {
                 eventType = (String) body.get("type");
             }
 
-            if ("payment".equalsIgnoreCase(eventType)) {
+            // El pago se consulta y procesa en segundo plano (WebhookInboxService)
+            if (WebhookInboxService.TYPE_PAYMENT.equalsIgnoreCase(eventType)) {
                 Object dataObj = body.get("data");
                 if (dataObj instanceof Map) {
                     Object idObj = ((Map<?, ?>) dataObj).get("id");
                     if (idObj != null) {
-                        String paymentIdStr = String.valueOf(idObj);
-                        // Consultar pago vía API REST
-                        // Consultar el pago con el token del integrador (siempre puede ver pagos de sellers)
-                        String webhookAccessToken = mpCredentials.getAccessToken();
-
-                        HttpRequest reqPayment = HttpRequest.newBuilder()
-                            .uri(URI.create("https://api.mercadopago.com/v1/payments/" + paymentIdStr))
-                            .header("Authorization", "Bearer " + webhookAccessToken)
-                            .GET()
-                            .build();
-                        HttpClient client = HttpClient.newHttpClient();
-                        HttpResponse<String> resp = client.send(reqPayment, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
-                        if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
-                            ObjectMapper mapper = new ObjectMapper();
-                            Map<String, Object> payment = mapper.readValue(resp.body(), new TypeReference<Map<String, Object>>(){});
-                            String status = String.valueOf(payment.get("status"));
-                            String externalRef = payment.get("external_reference") instanceof String
-                                    ? (String) payment.get("external_reference") : null;
-
-                            if ("approved".equalsIgnoreCase(status)) {
-                                paymentService.activateSubscription(externalRef, paymentIdStr);
-                            } else {
-                                logger.info("[Webhook] Pago {} con status '{}' — no se activa suscripción.", paymentIdStr, status);
-                            }
-
-                            return ResponseEntity.ok(Map.of(
-                                "received", true,
-                                "paymentId", payment.get("id"),
-                                "status", status,
-                                "detail", payment.get("status_detail")
-                            ));
+                        // Reentrega de un pago ya registrado: no se encola
+                        if (paymentService.isPaymentProcessed(String.valueOf(idObj))) {
+                            return ResponseEntity.ok(Map.of("received", true, "duplicate", true));
+                        }
+                        String rawBody = extractRawBody(request);
+                        String payload = !rawBody.isEmpty() ? rawBody : new ObjectMapper().writeValueAsString(body);
+                        try {
+                            webhookInboxService.enqueue(WebhookInboxService.TYPE_PAYMENT, String.valueOf(idObj), payload);
+                        } catch (Exception e) {
+                            // Sin guardar el evento se perdería: se responde error para que MP lo reintente
+                            logger.error("[Webhook] No se pudo encolar el pago {}: {}", idObj, e.getMessage(), e);
+                            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("received", false));
                         }
+                        return ResponseEntity.ok(Map.of("received", true, "queued", true));
                     }
                 }
             }
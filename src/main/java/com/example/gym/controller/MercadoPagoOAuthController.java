@@ -1,6 +1,7 @@
 package com.example.gym.controller;
 
 import com.example.gym.service.MercadoPagoCredentialService;
+import com.example.gym.service.OutboundHttpClient;
 import com.example.gym.tenant.TenantContext;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,7 +20,6 @@ import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -36,6 +36,9 @@ public class MercadoPagoOAuthController {
     @Autowired
     private MercadoPagoCredentialService mpCredentials;
 
+    @Autowired
+    private OutboundHttpClient outboundHttpClient;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -138,8 +141,7 @@ public class MercadoPagoOAuthController {
                     .POST(HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
                     .build();
 
-            HttpResponse<String> resp = HttpClient.newHttpClient()
-                    .send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.MERCADOPAGO, req);
 
             logger.info("[MP OAuth] Respuesta de token — status={}", resp.statusCode());
 
@@ -3,12 +3,23 @@ package com.example.gym.controller;
 import com.example.gym.dto.*;
 import com.example.gym.model.*;
 import com.example.gym.repository.*;
+import com.example.gym.service.ClosedDateService;
+import com.example.gym.service.ReservationCancellationService;
+import com.example.gym.service.SeatAdmissionService;
+import com.example.gym.service.SlotOccupancyService;
+import com.example.gym.service.WaitlistService;
+import com.example.gym.service.WeekScheduleService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,20 +29,43 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/turnos")
 public class TurnosController {
     
     private static final Logger logger = LoggerFactory.getLogger(TurnosController.class);
+
+    // Máximo de días que se pueden consultar de una vez en /available
+    private static final int MAX_AVAILABILITY_RANGE_DAYS = 31;
+
+    // Máximo de días que se pueden cerrar de una vez en /closures
+    private static final int MAX_CLOSURE_RANGE_DAYS = 366;
+
+    // Tamaño de página por defecto y máximo del listado paginado de /reservations
+    private static final int DEFAULT_RESERVATIONS_PAGE_SIZE = 50;
+    private static final int MAX_RESERVATIONS_PAGE_SIZE = 200;
+
+    // Cada cuántas filas se envía lo escrito al cliente en el export en streaming
+    private static final int STREAM_FLUSH_EVERY = 500;
     
     @Autowired
     private ScheduleRepository scheduleRepository;
@@ -40,7 +74,34 @@ public class TurnosController {
     private ReservationRepository reservationRepository;
 
     @Autowired
-    private SubscriptionRepository subscriptionRepository;
+    private UserRepository userRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private ClosedDateRepository closedDateRepository;
+
+    @Autowired
+    private SlotOccupancyService slotOccupancyService;
+
+    @Autowired
+    private SeatAdmissionService seatAdmissionService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private ReservationCancellationService reservationCancellationService;
+
+    @Autowired
+    private ClosedDateService closedDateService;
+
+    @Autowired
+    private WeekScheduleService weekScheduleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @Value("${reservation.noshow.threshold:3}")
     private int defaultNoShowThreshold;
@@ -111,6 +172,7 @@ public class TurnosController {
                 .build();
 
             Schedule saved = scheduleRepository.save(schedule);
+            weekScheduleService.invalidate();
             return ResponseEntity.ok(mapScheduleToDTO(saved));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -126,6 +188,22 @@ public class TurnosController {
         return ResponseEntity.ok(mapSchedulesToDTO(schedules));
     }
 
+    // GET /api/turnos/schedules/week?week=2025-W03 - Grilla semanal con ocupación por fecha
+    // Sin parámetro devuelve la semana actual.
+    @GetMapping("/schedules/week")
+    @PreAuthorize("hasRole('OWNER') or hasRole('TRAINER')")
+    public ResponseEntity<?> getWeekSchedule(@RequestParam(required = false) String week) {
+        LocalDate weekStart;
+        try {
+            weekStart = week != null && !week.isEmpty()
+                ? WeekScheduleService.parseIsoWeek(week)
+                : LocalDate.now();
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Formato de semana inválido. Use YYYY-Www (ej. 2025-W03)");
+        }
+        return ResponseEntity.ok(weekScheduleService.getWeek(weekStart));
+    }
+
     // PUT /api/turnos/schedule/{scheduleId} - Actualizar horario
     @PutMapping("/schedule/{scheduleId}")
     @PreAuthorize("hasRole('OWNER')")
@@ -180,6 +258,7 @@ public class TurnosController {
             }
 
             Schedule saved = scheduleRepository.save(existing);
+            weekScheduleService.invalidate();
             return ResponseEntity.ok(mapScheduleToDTO(saved));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -190,6 +269,7 @@ public class TurnosController {
     // DELETE /api/turnos/schedule/{scheduleId} - Eliminar horario
     @DeleteMapping("/schedule/{scheduleId}")
     @PreAuthorize("hasRole('OWNER')")
+    @Transactional
     public ResponseEntity<?> deleteSchedule(@PathVariable Long scheduleId) {
         try {
             Optional<Schedule> scheduleOpt = scheduleRepository.findById(scheduleId);
@@ -207,9 +287,14 @@ public class TurnosController {
                 // TODO: notificar a los usuarios afectados (opcional)
             }
 
+            // Fechas cerradas y lista de espera referencian al horario: se borran antes
+            closedDateRepository.deleteByScheduleId(scheduleId);
+            waitlistEntryRepository.deleteByScheduleId(scheduleId);
+
             // La relación en Schedule está configurada con cascade ALL y orphanRemoval=true
             // por lo que al eliminar el schedule, las reservas asociadas se eliminarán también.
             scheduleRepository.delete(schedule);
+            weekScheduleService.invalidate();
 
             return ResponseEntity.ok("Schedule y sus reservas eliminados exitosamente");
         } catch (Exception e) {
@@ -222,39 +307,85 @@ public class TurnosController {
     // =============== MEMBER ENDPOINTS - Reservas ===============
     
     // GET /api/turnos/available?date=2025-01-15 - Obtener turnos disponibles
+    // GET /api/turnos/available?from=2025-01-13&to=2025-01-19 - Turnos disponibles de un rango (ej. semana)
     @GetMapping("/available")
-    public ResponseEntity<?> getAvailableSlots(@RequestParam String date) {
+    public ResponseEntity<?> getAvailableSlots(@RequestParam(required = false) String date,
+                                               @RequestParam(required = false) String from,
+                                               @RequestParam(required = false) String to) {
         try {
-            LocalDate targetDate = LocalDate.parse(date);
-            Integer dayOfWeek = targetDate.getDayOfWeek().getValue() % 7; // Convertir a 0=Domingo, 1=Lunes
-            
-            List<Schedule> schedulesForDay = scheduleRepository.findByDayOfWeekAndIsActive(dayOfWeek);
-            
-            List<AvailableSlotDTO> availableSlots = schedulesForDay.stream()
-                .filter(schedule -> !isDatePaused(schedule, targetDate))
-                .map(schedule -> {
-                    Long confirmedReservations = reservationRepository
-                        .countConfirmedReservationsByScheduleAndDate(schedule.getId(), targetDate);
-                    
-                    AvailableSlotDTO slot = new AvailableSlotDTO();
-                    slot.setScheduleId(schedule.getId());
-                    slot.setStartTime(schedule.getStartTime().toString());
-                    slot.setEndTime(schedule.getEndTime().toString());
-                    slot.setMaxCapacity(schedule.getMaxCapacity());
-                    slot.setAvailableSpots(schedule.getMaxCapacity() - confirmedReservations.intValue());
-                    
-                    return slot;
-                })
-                .filter(slot -> slot.getAvailableSpots() > 0) // Solo slots disponibles
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(availableSlots);
+            LocalDate startDate;
+            LocalDate endDate;
+            if (date != null && !date.isEmpty()) {
+                startDate = LocalDate.parse(date);
+                endDate = startDate;
+            } else if (from != null && !from.isEmpty() && to != null && !to.isEmpty()) {
+                startDate = LocalDate.parse(from);
+                endDate = LocalDate.parse(to);
+                if (endDate.isBefore(startDate)) {
+                    return ResponseEntity.badRequest().body("La fecha 'to' debe ser posterior o igual a 'from'");
+                }
+                if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_AVAILABILITY_RANGE_DAYS) {
+                    return ResponseEntity.badRequest()
+                        .body("El rango no puede superar los " + MAX_AVAILABILITY_RANGE_DAYS + " días");
+                }
+            } else {
+                return ResponseEntity.badRequest().body("Debe enviar date o el rango from/to");
+            }
+
+            return ResponseEntity.ok(buildAvailableSlots(startDate, endDate));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body("Error al obtener turnos disponibles: " + e.getMessage());
         }
     }
 
+    // Arma la disponibilidad de un rango con la ocupación en memoria (se carga desde la base si hace falta)
+    private List<AvailableSlotDTO> buildAvailableSlots(LocalDate startDate, LocalDate endDate) {
+        // Un solo día: los cerrados se excluyen en la consulta. Rango: una consulta de turnos cerrados.
+        boolean singleDay = startDate.equals(endDate);
+        List<Schedule> schedules = singleDay
+            ? scheduleRepository.findOpenByDayOfWeekAndDate(toDayOfWeek(startDate), startDate)
+            : scheduleRepository.findAllActiveOrderedByDayAndTime();
+        Map<LocalDate, Set<Long>> closedByDate = singleDay
+            ? Map.of()
+            : closedDateService.closedSlotsBetween(startDate, endDate);
+        Map<Integer, List<Schedule>> schedulesByDay = schedules.stream()
+            .sorted(Comparator.comparing(Schedule::getStartTime))
+            .collect(Collectors.groupingBy(Schedule::getDayOfWeek));
+
+        Map<LocalDate, Map<Long, Integer>> confirmedByDate = slotOccupancyService.getConfirmedCounts(startDate, endDate);
+
+        List<AvailableSlotDTO> availableSlots = new ArrayList<>();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Map<Long, Integer> confirmed = confirmedByDate.getOrDefault(day, Map.of());
+            Set<Long> closed = closedByDate.getOrDefault(day, Set.of());
+            for (Schedule schedule : schedulesByDay.getOrDefault(toDayOfWeek(day), List.of())) {
+                if (closed.contains(schedule.getId())) {
+                    continue;
+                }
+                int availableSpots = schedule.getMaxCapacity()
+                    - confirmed.getOrDefault(schedule.getId(), 0);
+                if (availableSpots <= 0) {
+                    continue; // Solo slots disponibles
+                }
+
+                AvailableSlotDTO slot = new AvailableSlotDTO();
+                slot.setScheduleId(schedule.getId());
+                slot.setDate(day.toString());
+                slot.setStartTime(schedule.getStartTime().toString());
+                slot.setEndTime(schedule.getEndTime().toString());
+                slot.setMaxCapacity(schedule.getMaxCapacity());
+                slot.setAvailableSpots(availableSpots);
+                availableSlots.add(slot);
+            }
+        }
+        return availableSlots;
+    }
+
+    private Integer toDayOfWeek(LocalDate date) {
+        return date.getDayOfWeek().getValue() % 7; // Convertir a 0=Domingo, 1=Lunes
+    }
+
     // POST /api/turnos/reservation - Hacer reserva
     @PostMapping("/reservation")
     @Transactional(isolation = Isolation.REPEATABLE_READ)
@@ -269,8 +400,10 @@ public class TurnosController {
             
             LocalDate reservationDate = LocalDate.parse(request.getDate());
             
-            // Verificar que el horario existe con bloqueo pesimista
-            Optional<Schedule> scheduleOpt = scheduleRepository.findByIdForUpdate(request.getScheduleId());
+            // Verificar que el horario existe (con bloqueo pesimista solo en modo locking)
+            Optional<Schedule> scheduleOpt = seatAdmissionService.isOptimistic()
+                ? scheduleRepository.findScopedById(request.getScheduleId())
+                : scheduleRepository.findByIdForUpdate(request.getScheduleId());
             if (scheduleOpt.isEmpty() || !scheduleOpt.get().getIsActive()) {
                 return ResponseEntity.badRequest().body("Horario no encontrado o no disponible");
             }
@@ -289,63 +422,61 @@ public class TurnosController {
             }
 
             // Bloqueo por pausa en fecha específica
-            if (isDatePaused(schedule, reservationDate)) {
+            if (closedDateService.isClosed(schedule.getId(), reservationDate)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("No se permiten reservas en esta fecha (pausada)");
             }
             
         
+            // Datos de elegibilidad en una sola consulta (dentro de la sección bloqueada en modo locking)
+            LocalDate weekStart = reservationDate.with(java.time.DayOfWeek.MONDAY);
+            LocalDate weekEnd   = weekStart.plusDays(6);
+            ReservationRepository.ReservationEligibility eligibility = reservationRepository.findReservationEligibility(
+                    currentUser.getId(), request.getScheduleId(), reservationDate, weekStart, weekEnd);
+
             // Verificar que el usuario no tenga ya una reserva CONFIRMADA para ese horario y fecha
-            Long existingReservation = reservationRepository
-                .countConfirmedByUserAndScheduleAndDate(currentUser.getId(), request.getScheduleId(), reservationDate);
-            if (existingReservation != null && existingReservation > 0) {
+            if (eligibility.getAlreadyBooked() > 0) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
                                      .body("Ya tienes una reserva confirmada para este horario y fecha");
             }
 
             // Si el staff canceló ese mismo turno, el usuario no puede volver a anotarse
-            Long cancelledByStaff = reservationRepository
-                .countStaffCancelledByUserAndScheduleAndDate(currentUser.getId(), request.getScheduleId(), reservationDate);
-            if (cancelledByStaff != null && cancelledByStaff > 0) {
+            if (eligibility.getStaffCancelled() > 0) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
                                      .body("No puedes volver a anotarte en este horario y fecha porque fue cancelado por el staff");
             }
-            
-            
+
             // Verificar límite de días por semana según el plan del usuario
-            Optional<Subscription> activeSub = subscriptionRepository.findByUser(currentUser).stream()
-                .filter(s -> s.getStatus() == Subscription.Status.ACTIVE)
-                .findFirst();
-            if (activeSub.isPresent()) {
-                Integer daysPerWeek = activeSub.get().getPlan().getDaysPerWeek();
-                if (daysPerWeek != null && daysPerWeek > 0) {
-                    LocalDate weekStart = reservationDate.with(java.time.DayOfWeek.MONDAY);
-                    LocalDate weekEnd   = weekStart.plusDays(6);
-                    Long attended = reservationRepository.countAttendedInWeek(
-                            currentUser.getId(), weekStart, weekEnd);
-                    if (attended >= daysPerWeek) {
-                        return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                                .body("Ya alcanzaste el límite de " + daysPerWeek
-                                        + " día(s) por semana de tu plan para esta semana");
-                    }
-                }
+            Integer daysPerWeek = eligibility.getDaysPerWeek();
+            if (daysPerWeek != null && daysPerWeek > 0 && eligibility.getAttendedInWeek() >= daysPerWeek) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("Ya alcanzaste el límite de " + daysPerWeek
+                                + " día(s) por semana de tu plan para esta semana");
             }
 
             // Verificar capacidad disponible
-            Long currentReservations = reservationRepository
-                .countConfirmedReservationsByScheduleAndDate(request.getScheduleId(), reservationDate);
-            if (currentReservations >= schedule.getMaxCapacity()) {
-                return ResponseEntity.badRequest().body("No hay cupos disponibles para este horario");
+            if (seatAdmissionService.isOptimistic()) {
+                // Toma el cupo con un UPDATE condicional; si la reserva falla, el rollback lo devuelve
+                if (!seatAdmissionService.tryTakeSeat(schedule, reservationDate)) {
+                    return ResponseEntity.badRequest().body("No hay cupos disponibles para este horario");
+                }
+            } else {
+                if (eligibility.getConfirmedInSlot() >= schedule.getMaxCapacity()) {
+                    return ResponseEntity.badRequest().body("No hay cupos disponibles para este horario");
+                }
+                seatAdmissionService.seatTaken(schedule.getId(), reservationDate);
             }
 
             // Crear la reserva
+            // Referencia administrada: el usuario se carga solo al armar la respuesta
             Reservation reservation = Reservation.builder()
-                .user(currentUser)
+                .user(userRepository.getReferenceById(currentUser.getId()))
                 .schedule(schedule)
                 .date(reservationDate)
                 .status(Reservation.ReservationStatus.CONFIRMED)
                 .build();
             
             Reservation saved = reservationRepository.saveAndFlush(reservation);
+            slotOccupancyService.reservationConfirmed(saved);
             return ResponseEntity.ok(mapReservationToDTO(saved));
         } catch (DataIntegrityViolationException ex) {
             // Violación de la restricción única (duplicado o carrera)
@@ -363,9 +494,15 @@ public class TurnosController {
     // OWNER: Pausar un día específico para un schedule
     @PutMapping("/schedule/{scheduleId}/pause")
     @PreAuthorize("hasRole('OWNER')")
-    public ResponseEntity<?> pauseScheduleDay(@PathVariable Long scheduleId, @RequestParam String date) {
+    @Transactional
+    public ResponseEntity<?> pauseScheduleDay(@PathVariable Long scheduleId, @RequestParam String date,
+                                              @RequestParam(required = false) String reason) {
         try {
             LocalDate target = LocalDate.parse(date);
+            // Cerrar un día pasado cancelaría reservas ya cumplidas y reescribiría asistencias y no-shows
+            if (target.isBefore(LocalDate.now())) {
+                return ResponseEntity.badRequest().body("No se pueden pausar fechas pasadas");
+            }
             Optional<Schedule> scheduleOpt = scheduleRepository.findById(scheduleId);
             if (scheduleOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
@@ -378,20 +515,8 @@ public class TurnosController {
                 return ResponseEntity.badRequest().body("La fecha no corresponde al día del horario");
             }
 
-            // Añadir fecha a pausedDates (CSV)
-            schedule.setPausedDates(addDateToCsv(schedule.getPausedDates(), target));
-            scheduleRepository.save(schedule);
-
-            // Cancelar solo las reservas CONFIRMADAS de ese día
-            List<Reservation> toCancel = reservationRepository
-                    .findByScheduleIdAndDateAndStatus(scheduleId, target, Reservation.ReservationStatus.CONFIRMED);
-            for (Reservation r : toCancel) {
-                r.setStatus(Reservation.ReservationStatus.CANCELLED);
-                r.setCancelledAt(LocalDateTime.now());
-            }
-            if (!toCancel.isEmpty()) {
-                reservationRepository.saveAll(toCancel);
-            }
+            // Cierra el día y cancela sus reservas CONFIRMADAS con un solo UPDATE
+            closedDateService.closeSlots(List.of(schedule), target, target, reason);
 
             return ResponseEntity.ok("Día pausado y reservas del día canceladas");
         } catch (Exception e) {
@@ -410,10 +535,8 @@ public class TurnosController {
             if (scheduleOpt.isEmpty()) {
                 return ResponseEntity.notFound().build();
             }
-            Schedule schedule = scheduleOpt.get();
 
-            schedule.setPausedDates(removeDateFromCsv(schedule.getPausedDates(), target));
-            scheduleRepository.save(schedule);
+            closedDateService.reopen(scheduleId, target);
             return ResponseEntity.ok("Pausa retirada para la fecha");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -421,41 +544,95 @@ public class TurnosController {
         }
     }
 
-    // ===== Helpers para manejo de fechas pausadas (CSV) =====
-    private boolean isDatePaused(Schedule schedule, LocalDate date) {
-        if (schedule.getPausedDates() == null || schedule.getPausedDates().isEmpty()) return false;
-        String iso = date.toString();
-        for (String token : schedule.getPausedDates().split(",")) {
-            String t = token.trim();
-            if (!t.isEmpty() && t.equals(iso)) return true;
+    // OWNER: Cerrar un rango de fechas para todos los horarios activos (o los indicados), ej. feriados.
+    // Cancela las reservas afectadas y devuelve los usuarios a notificar.
+    // POST /api/turnos/closures {"from":"2025-12-24","to":"2025-12-31","reason":"Fiestas"}
+    @PostMapping("/closures")
+    @PreAuthorize("hasRole('OWNER')")
+    @Transactional
+    public ResponseEntity<?> closeDateRange(@RequestBody ClosureRequest request) {
+        try {
+            ResponseEntity<?> invalid = validateClosureRange(request, true);
+            if (invalid != null) {
+                return invalid;
+            }
+            LocalDate from = LocalDate.parse(request.getFrom());
+            LocalDate to = LocalDate.parse(request.getTo());
+
+            List<Schedule> schedules = request.getScheduleIds() == null || request.getScheduleIds().isEmpty()
+                ? scheduleRepository.findByIsActiveTrue()
+                : scheduleRepository.findAllById(request.getScheduleIds());
+            if (schedules.isEmpty()) {
+                return ResponseEntity.badRequest().body("No hay horarios para cerrar");
+            }
+
+            ClosedDateService.ClosureResult result = closedDateService.closeSlots(schedules, from, to, request.getReason());
+
+            ClosureResponse response = new ClosureResponse();
+            response.setClosedSlots(result.closedSlots());
+            response.setCancelledReservations(result.cancelledReservations());
+            response.setAffectedUserIds(result.affectedUserIds());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Error al cerrar fechas: " + e.getMessage());
         }
-        return false;
     }
 
-    private String addDateToCsv(String csv, LocalDate date) {
-        String iso = date.toString();
-        if (csv == null || csv.isEmpty()) return iso;
-        // Evitar duplicados
-        for (String token : csv.split(",")) {
-            if (iso.equals(token.trim())) return csv;
+    // OWNER: Reabrir un rango de fechas (las reservas canceladas por el cierre no se restauran)
+    // POST /api/turnos/closures/reopen {"from":"2025-12-24","to":"2025-12-31"}
+    // (POST y no DELETE: varios proxies y clientes descartan el body de un DELETE)
+    @PostMapping("/closures/reopen")
+    @PreAuthorize("hasRole('OWNER')")
+    public ResponseEntity<?> reopenDateRange(@RequestBody ClosureRequest request) {
+        try {
+            ResponseEntity<?> invalid = validateClosureRange(request, false);
+            if (invalid != null) {
+                return invalid;
+            }
+            LocalDate from = LocalDate.parse(request.getFrom());
+            LocalDate to = LocalDate.parse(request.getTo());
+
+            List<Long> scheduleIds = request.getScheduleIds() == null || request.getScheduleIds().isEmpty()
+                ? scheduleRepository.findAllIds()
+                : request.getScheduleIds();
+            if (scheduleIds.isEmpty()) {
+                return ResponseEntity.ok("No hay horarios para reabrir");
+            }
+
+            int reopened = closedDateService.reopenSlots(scheduleIds, from, to);
+            return ResponseEntity.ok("Se reabrieron " + reopened + " turnos");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Error al reabrir fechas: " + e.getMessage());
         }
-        return csv + "," + iso;
     }
 
-    private String removeDateFromCsv(String csv, LocalDate date) {
-        if (csv == null || csv.isEmpty()) return csv;
-        String iso = date.toString();
-        String[] parts = csv.split(",");
-        List<String> kept = new java.util.ArrayList<>();
-        for (String p : parts) {
-            String t = p.trim();
-            if (!t.isEmpty() && !t.equals(iso)) kept.add(t);
+    // Valida from/to de un cierre masivo; devuelve la respuesta de error o null si es válido.
+    // Al cerrar no se aceptan fechas pasadas: cancelaría reservas ya cumplidas y reescribiría
+    // asistencias y no-shows. Reabrir fechas pasadas no cambia reservas, así que se permite.
+    private ResponseEntity<?> validateClosureRange(ClosureRequest request, boolean closing) {
+        if (request.getFrom() == null || request.getTo() == null) {
+            return ResponseEntity.badRequest().body("Las fechas from y to son requeridas");
         }
-        return String.join(",", kept);
+        LocalDate from = LocalDate.parse(request.getFrom());
+        LocalDate to = LocalDate.parse(request.getTo());
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body("La fecha 'to' debe ser posterior o igual a 'from'");
+        }
+        if (closing && from.isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().body("No se pueden cerrar fechas pasadas");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CLOSURE_RANGE_DAYS) {
+            return ResponseEntity.badRequest()
+                .body("El rango no puede superar los " + MAX_CLOSURE_RANGE_DAYS + " días");
+        }
+        return null;
     }
 
     // DELETE /api/turnos/reservation/{reservationId} - Cancelar reserva
     @DeleteMapping("/reservation/{reservationId}")
+    @Transactional
     public ResponseEntity<?> cancelReservation(@PathVariable Long reservationId, Authentication auth) {
         try {
             User currentUser = (User) auth.getPrincipal();
@@ -477,6 +654,7 @@ public class TurnosController {
             }
             
             // Cambiar estado a cancelada y marcar fecha de cancelación
+            boolean wasConfirmed = reservation.getStatus() == Reservation.ReservationStatus.CONFIRMED;
             reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
             reservation.setCancelledAt(LocalDateTime.now());
             if (isOwnerOrTrainer && !reservation.getUser().getId().equals(currentUser.getId())) {
@@ -485,6 +663,10 @@ public class TurnosController {
                 reservation.setCancellationReason("REMOVED_BY_STAFF");
             }
             reservationRepository.save(reservation);
+            if (wasConfirmed) {
+                // Libera el cupo y promueve al primero de la lista de espera en la misma transacción
+                reservationCancellationService.afterCancelled(List.of(reservation));
+            }
             
             return ResponseEntity.ok("Reserva cancelada exitosamente");
         } catch (Exception e) {
@@ -545,14 +727,7 @@ public class TurnosController {
     public ResponseEntity<?> getUserReservations(Authentication auth) {
         try {
             User currentUser = (User) auth.getPrincipal();
-            List<Reservation> reservations = reservationRepository.findByUserIdAndConfirmedStatus(currentUser.getId());
-            
-            // Verificar si no hay reservas
-            if (reservations.isEmpty()) {
-                return ResponseEntity.ok(new ArrayList<>());
-            }
-            
-            List<ReservationDTO> reservationDTOs = mapReservationsToDTO(reservations);
+            List<ReservationDTO> reservationDTOs = reservationRepository.findConfirmedDTOsByUserId(currentUser.getId());
             return ResponseEntity.ok(reservationDTOs);
         } catch (Exception e) {
             // Log interno del error (no exponer detalles al cliente)
@@ -562,29 +737,212 @@ public class TurnosController {
         }
     }
 
+    // =============== MEMBER ENDPOINTS - Lista de espera ===============
+
+    // POST /api/turnos/waitlist - Anotarse en la lista de espera de un turno completo
+    @PostMapping("/waitlist")
+    @Transactional
+    public ResponseEntity<?> joinWaitlist(@RequestBody ReservationRequest request, Authentication auth) {
+        try {
+            User currentUser = (User) auth.getPrincipal();
+
+            if (request.getScheduleId() == null || request.getDate() == null) {
+                return ResponseEntity.badRequest().body("El horario y fecha son requeridos");
+            }
+            LocalDate date = LocalDate.parse(request.getDate());
+
+            Optional<Schedule> scheduleOpt = scheduleRepository.findScopedById(request.getScheduleId());
+            if (scheduleOpt.isEmpty() || !scheduleOpt.get().getIsActive()) {
+                return ResponseEntity.badRequest().body("Horario no encontrado o no disponible");
+            }
+            Schedule schedule = scheduleOpt.get();
+
+            if (!toDayOfWeek(date).equals(schedule.getDayOfWeek())) {
+                return ResponseEntity.badRequest().body("La fecha no corresponde al día de la semana del horario");
+            }
+            if (date.isBefore(LocalDate.now())) {
+                return ResponseEntity.badRequest().body("No se puede esperar un turno de una fecha pasada");
+            }
+            if (closedDateService.isClosed(schedule.getId(), date)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("No se permiten reservas en esta fecha (pausada)");
+            }
+
+            LocalDate weekStart = date.with(java.time.DayOfWeek.MONDAY);
+            ReservationRepository.ReservationEligibility eligibility = reservationRepository.findReservationEligibility(
+                    currentUser.getId(), schedule.getId(), date, weekStart, weekStart.plusDays(6));
+            if (eligibility.getAlreadyBooked() > 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                                     .body("Ya tienes una reserva confirmada para este horario y fecha");
+            }
+            if (eligibility.getStaffCancelled() > 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                                     .body("No puedes volver a anotarte en este horario y fecha porque fue cancelado por el staff");
+            }
+            if (eligibility.getConfirmedInSlot() < schedule.getMaxCapacity()) {
+                return ResponseEntity.badRequest().body("El turno todavía tiene cupos disponibles, reservá directamente");
+            }
+            Long alreadyWaiting = waitlistEntryRepository
+                .countWaitingByUserAndScheduleAndDate(currentUser.getId(), schedule.getId(), date);
+            if (alreadyWaiting != null && alreadyWaiting > 0) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                                     .body("Ya estás en la lista de espera de este turno");
+            }
+
+            WaitlistEntry entry = waitlistService.join(currentUser, schedule, date);
+            return ResponseEntity.ok(mapWaitlistEntryToDTO(entry, waitlistService.positionOf(entry)));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Error al anotarse en la lista de espera: " + e.getMessage());
+        }
+    }
+
+    // DELETE /api/turnos/waitlist/{entryId} - Salir de la lista de espera
+    @DeleteMapping("/waitlist/{entryId}")
+    @Transactional
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long entryId, Authentication auth) {
+        try {
+            User currentUser = (User) auth.getPrincipal();
+
+            Optional<WaitlistEntry> entryOpt = waitlistEntryRepository.findById(entryId);
+            if (entryOpt.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            WaitlistEntry entry = entryOpt.get();
+
+            boolean isOwnerOrTrainer = currentUser.getRole() == User.UserRole.OWNER ||
+                                       currentUser.getRole() == User.UserRole.TRAINER;
+            if (!isOwnerOrTrainer && !entry.getUser().getId().equals(currentUser.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                                     .body("No puedes quitar esta entrada de la lista de espera");
+            }
+            if (entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+                return ResponseEntity.badRequest().body("La entrada ya no está en espera");
+            }
+
+            entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+            entry.setResolvedAt(LocalDateTime.now());
+            waitlistEntryRepository.save(entry);
+            return ResponseEntity.ok("Saliste de la lista de espera");
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Error al salir de la lista de espera: " + e.getMessage());
+        }
+    }
+
+    // GET /api/turnos/my-waitlist - Mis lugares en listas de espera (desde hoy)
+    @GetMapping("/my-waitlist")
+    public ResponseEntity<?> getMyWaitlist(Authentication auth) {
+        try {
+            User currentUser = (User) auth.getPrincipal();
+            List<WaitlistEntryDTO> entries = waitlistEntryRepository
+                .findWaitingByUser(currentUser.getId(), LocalDate.now()).stream()
+                .map(entry -> mapWaitlistEntryToDTO(entry, waitlistService.positionOf(entry)))
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(entries);
+        } catch (Exception e) {
+            logger.error("Error al obtener la lista de espera del usuario", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                 .body("Error al obtener la lista de espera");
+        }
+    }
+
+    private WaitlistEntryDTO mapWaitlistEntryToDTO(WaitlistEntry entry, Long position) {
+        WaitlistEntryDTO dto = new WaitlistEntryDTO();
+        dto.setId(entry.getId());
+        dto.setScheduleId(entry.getSchedule().getId());
+        dto.setDate(entry.getDate().toString());
+        dto.setStartTime(entry.getSchedule().getStartTime().toString());
+        dto.setEndTime(entry.getSchedule().getEndTime().toString());
+        dto.setStatus(entry.getStatus().name());
+        dto.setCreatedAt(entry.getCreatedAt().toString());
+        dto.setPosition(position);
+        return dto;
+    }
+
     // =============== GENERAL ENDPOINTS ===============
     
     // GET /api/turnos/reservations?date=2025-01-15 - Obtener todas las reservas
+    // GET /api/turnos/reservations?from=2025-01-01&to=2025-01-31&limit=50&cursor=... - Listado paginado
+    // Sin parámetros devuelve el historial completo como array JSON, escrito en streaming.
     @GetMapping("/reservations")
     @PreAuthorize("hasRole('OWNER') or hasRole('TRAINER')")
-    public ResponseEntity<?> getAllReservations(@RequestParam(required = false) String date) {
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> getAllReservations(@RequestParam(required = false) String date,
+                                                @RequestParam(required = false) String from,
+                                                @RequestParam(required = false) String to,
+                                                @RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                HttpServletResponse response) {
         try {
-            List<Reservation> reservations;
-            
             if (date != null && !date.isEmpty()) {
                 LocalDate targetDate = LocalDate.parse(date);
-                reservations = reservationRepository.findByDateAndConfirmedStatus(targetDate);
+                return ResponseEntity.ok(reservationRepository.findConfirmedDTOsByDate(targetDate));
+            }
+
+            if (from == null && to == null && cursor == null && limit == null) {
+                return streamReservations(response, LocalDate.of(1970, 1, 1), LocalDate.of(9999, 12, 31));
+            }
+
+            LocalDate fromDate = from != null ? LocalDate.parse(from) : LocalDate.of(1970, 1, 1);
+            LocalDate toDate = to != null ? LocalDate.parse(to) : LocalDate.of(9999, 12, 31);
+            if (toDate.isBefore(fromDate)) {
+                return ResponseEntity.badRequest().body("La fecha 'to' no puede ser anterior a 'from'");
+            }
+            int pageSize = limit != null ? limit : DEFAULT_RESERVATIONS_PAGE_SIZE;
+            if (pageSize < 1 || pageSize > MAX_RESERVATIONS_PAGE_SIZE) {
+                return ResponseEntity.badRequest()
+                    .body("El limit debe estar entre 1 y " + MAX_RESERVATIONS_PAGE_SIZE);
+            }
+
+            // Se pide una fila de más para saber si hay página siguiente
+            PageRequest page = PageRequest.of(0, pageSize + 1);
+            List<ReservationDTO> reservations;
+            if (cursor != null && !cursor.isEmpty()) {
+                ReservationCursor after = ReservationCursor.decode(cursor);
+                if (after == null) {
+                    return ResponseEntity.badRequest().body("Cursor inválido");
+                }
+                reservations = reservationRepository.findConfirmedDTOPageAfter(
+                    fromDate, toDate, after.date(), after.startTime(), after.id(), page);
             } else {
-                reservations = reservationRepository.findAllConfirmedReservations();
+                reservations = reservationRepository.findConfirmedDTOPage(fromDate, toDate, page);
             }
-            
-            return ResponseEntity.ok(mapReservationsToDTO(reservations));
+
+            String nextCursor = null;
+            if (reservations.size() > pageSize) {
+                reservations = reservations.subList(0, pageSize);
+                nextCursor = ReservationCursor.of(reservations.get(pageSize - 1)).encode();
+            }
+            return ResponseEntity.ok(new ReservationPageDTO(reservations, nextCursor));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Formato de fecha inválido. Use YYYY-MM-DD");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                                  .body("Error al obtener reservas: " + e.getMessage());
         }
     }
 
+    // GET /api/turnos/reservations/export?from=2025-01-01&to=2025-12-31 - Exportar reservas en streaming
+    @GetMapping("/reservations/export")
+    @PreAuthorize("hasRole('OWNER') or hasRole('TRAINER')")
+    @Transactional(readOnly = true)
+    public ResponseEntity<?> exportReservations(@RequestParam(required = false) String from,
+                                                @RequestParam(required = false) String to,
+                                                HttpServletResponse response) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = from != null ? LocalDate.parse(from) : LocalDate.of(1970, 1, 1);
+            toDate = to != null ? LocalDate.parse(to) : LocalDate.of(9999, 12, 31);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Formato de fecha inválido. Use YYYY-MM-DD");
+        }
+        if (toDate.isBefore(fromDate)) {
+            return ResponseEntity.badRequest().body("La fecha 'to' no puede ser anterior a 'from'");
+        }
+        return streamReservations(response, fromDate, toDate);
+    }
+
     // =============== OWNER - Configuración de política de no-shows ===============
 
     @GetMapping("/noshow-policy")
@@ -639,18 +997,16 @@ public class TurnosController {
             return 0;
         }
 
+        // Superó el límite: también pierde sus lugares en listas de espera
+        waitlistService.cancelForUser(user.getId());
+
         List<Reservation> futureReservations = reservationRepository.findFutureConfirmedByUser(user.getId(), today);
         if (futureReservations.isEmpty()) {
             return 0;
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        for (Reservation reservation : futureReservations) {
-            reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-            reservation.setCancelledAt(now);
-        }
-
-        reservationRepository.saveAll(futureReservations);
+        // Cancela, libera los cupos y promueve la lista de espera de cada turno
+        reservationCancellationService.cancelAll(futureReservations);
         return futureReservations.size();
     }
 
@@ -670,6 +1026,17 @@ public class TurnosController {
     // =============== MÉTODOS DE MAPEO ===============
     
     private ScheduleDTO mapScheduleToDTO(Schedule schedule) {
+        ScheduleDTO dto = mapScheduleFieldsToDTO(schedule);
+        
+        // Calcular reservas actuales (opcional, para mostrar ocupación)
+        Long currentReservations = reservationRepository
+            .countConfirmedReservationsByScheduleAndDate(schedule.getId(), LocalDate.now());
+        dto.setCurrentReservations(currentReservations.intValue());
+        
+        return dto;
+    }
+
+    private ScheduleDTO mapScheduleFieldsToDTO(Schedule schedule) {
         ScheduleDTO dto = new ScheduleDTO();
         dto.setId(schedule.getId());
         dto.setDayOfWeek(schedule.getDayOfWeek());
@@ -679,18 +1046,19 @@ public class TurnosController {
         dto.setIsActive(schedule.getIsActive());
         dto.setRepeatWeekly(schedule.getRepeatWeekly());
         dto.setDescription(schedule.getDescription());
-        
-        // Calcular reservas actuales (opcional, para mostrar ocupación)
-        Long currentReservations = reservationRepository
-            .countConfirmedReservationsByScheduleAndDate(schedule.getId(), LocalDate.now());
-        dto.setCurrentReservations(currentReservations.intValue());
-        
         return dto;
     }
     
+    // Varios horarios: la ocupación de hoy sale de los contadores en memoria (sin una consulta por horario)
     private List<ScheduleDTO> mapSchedulesToDTO(List<Schedule> schedules) {
+        LocalDate today = LocalDate.now();
+        Map<Long, Integer> todayCounts = slotOccupancyService.getConfirmedCounts(today, today).get(today);
         return schedules.stream()
-                       .map(this::mapScheduleToDTO)
+                       .map(schedule -> {
+                           ScheduleDTO dto = mapScheduleFieldsToDTO(schedule);
+                           dto.setCurrentReservations(todayCounts.getOrDefault(schedule.getId(), 0));
+                           return dto;
+                       })
                        .collect(Collectors.toList());
     }
     
@@ -747,10 +1115,72 @@ public class TurnosController {
             return errorDto;
         }
     }
-    
-    private List<ReservationDTO> mapReservationsToDTO(List<Reservation> reservations) {
-        return reservations.stream()
-                          .map(this::mapReservationToDTO)
-                          .collect(Collectors.toList());
+
+    // Export en streaming: una vez empezado el body no se puede responder con otro status, así que
+    // un error (cliente que corta, falla de la base) solo se registra. Devuelve null: ya se respondió.
+    private ResponseEntity<?> streamReservations(HttpServletResponse response, LocalDate from, LocalDate to) {
+        try {
+            writeReservationsAsJson(response, from, to);
+        } catch (Exception e) {
+            logger.warn("Export de reservas interrumpido: {}", e.getMessage());
+            if (!response.isCommitted()) {
+                try {
+                    response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException ignored) {
+                    // el cliente ya no está
+                }
+            }
+        }
+        return null;
+    }
+
+    // Escribe las reservas confirmadas del rango como array JSON a medida que salen de la base.
+    // Las filas se proyectan a DTO (no quedan entidades en el contexto de persistencia), así que
+    // el heap no crece con el tamaño del historial. Requiere una transacción abierta (cursor JDBC).
+    private void writeReservationsAsJson(HttpServletResponse response, LocalDate from, LocalDate to) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        try (Stream<ReservationDTO> rows = reservationRepository.streamConfirmedDTOsBetween(from, to);
+             JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            json.writeStartArray();
+            int written = 0;
+            for (Iterator<ReservationDTO> it = rows.iterator(); it.hasNext(); ) {
+                json.writeObject(it.next());
+                if (++written % STREAM_FLUSH_EVERY == 0) {
+                    json.flush();
+                }
+            }
+            json.writeEndArray();
+        }
+    }
+
+    /** Posición de la última fila entregada: fecha, hora de inicio e id (base64url de "fecha|hora|id"). */
+    private record ReservationCursor(LocalDate date, LocalTime startTime, Long id) {
+
+        static ReservationCursor of(ReservationDTO reservation) {
+            return new ReservationCursor(LocalDate.parse(reservation.getDate()),
+                LocalTime.parse(reservation.getStartTime()), reservation.getId());
+        }
+
+        String encode() {
+            String raw = date + "|" + startTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Devuelve null si el cursor no es válido
+        static ReservationCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 3) {
+                    return null;
+                }
+                return new ReservationCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                return null;
+            }
+        }
     }
 }
@@ -12,6 +12,7 @@ import com.example.gym.service.EmailService;
 import com.example.gym.service.UserDeactivationService;
 import com.example.gym.tenant.TenantSwitch;
 import com.example.gym.tenant.TenantSwitchRepository;
+import com.example.gym.tenant.TenantSwitchService;
 import com.example.gym.exception.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import com.example.gym.security.JwtUtil;
+import com.example.gym.security.PrincipalCache;
+import com.example.gym.security.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -45,6 +48,12 @@ public class UserController {
     private UserDeactivationService userDeactivationService;
     @Autowired
     private TenantSwitchRepository tenantSwitchRepository;
+    @Autowired
+    private TenantSwitchService tenantSwitchService;
+    @Autowired
+    private PrincipalCache principalCache;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
 
     @org.springframework.beans.factory.annotation.Value("${user.inactivity.default-days:14}")
     private int defaultInactivityDays;
@@ -106,7 +115,7 @@ public class UserController {
         user.setLastLoginAt(LocalDateTime.now());
         userRepository.save(user);
         
-        String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+        String token = jwtUtil.generateToken(user);
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
         response.put("role", user.getRole());
@@ -206,6 +215,7 @@ public class UserController {
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         user.setRole(User.UserRole.TRAINER);
         user.setStatus(User.UserStatus.ACTIVE); // Los TRAINER siempre están activos
+        tokenRevocationRegistry.revoke(user);
         userRepository.save(user);
         
         Map<String, Object> response = new HashMap<>();
@@ -225,6 +235,7 @@ public class UserController {
         User owner = (User) authentication.getPrincipal();
         User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         user.setRole(User.UserRole.MEMBER);
+        tokenRevocationRegistry.revoke(user);
         userRepository.save(user);
         return ResponseEntity.ok("Role changed to MEMBER by OWNER: " + owner.getEmail());
     }
@@ -242,6 +253,7 @@ public class UserController {
         user.setDeactivatedByRole(null);
         user.setDeactivationReason(null);
         userRepository.save(user);
+        principalCache.invalidate(user);
         return ResponseEntity.ok("Usuario activado por OWNER: " + owner.getEmail());
     }
 
@@ -327,6 +339,7 @@ public class UserController {
         }
 
         tenantSwitchRepository.save(sw);
+        tenantSwitchService.invalidate(tenantId);
 
         InactivityPolicyResponse response = new InactivityPolicyResponse();
         response.setDays(days != null ? days : parseDaysOrDefault(sw.getPayload()));
@@ -339,7 +352,12 @@ public class UserController {
     @GetMapping("/me")
     public ResponseEntity<?> getMyProfile(Authentication authentication) {
         try {
-            User currentUser = (User) authentication.getPrincipal();
+            // El principal solo trae id, email, rol y estado: el perfil completo se lee de la base
+            Long currentUserId = ((User) authentication.getPrincipal()).getId();
+            User currentUser = userRepository.findById(currentUserId).orElse(null);
+            if (currentUser == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Usuario no encontrado");
+            }
             
             Map<String, Object> userProfile = new HashMap<>();
             userProfile.put("id", currentUser.getId());
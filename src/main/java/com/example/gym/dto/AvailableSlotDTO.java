@@ -2,6 +2,7 @@ package com.example.gym.dto;
 
 public class AvailableSlotDTO {
     public Long scheduleId;
+    public String date; // "2025-01-15"
     public String startTime; // "08:00"
     public String endTime; // "09:00"
     public Integer maxCapacity;
@@ -19,6 +20,14 @@ public class AvailableSlotDTO {
         this.scheduleId = scheduleId;
     }
 
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
     public String getStartTime() {
         return startTime;
     }
@@ -0,0 +1,42 @@
+package com.example.gym.dto;
+
+import java.util.List;
+
+public class ClosureRequest {
+    private String from; // "2025-12-24"
+    private String to; // "2025-12-31"
+    private List<Long> scheduleIds; // opcional: si es null o vacío se cierran todos los horarios activos
+    private String reason; // opcional, ej. "Feriado"
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<Long> getScheduleIds() {
+        return scheduleIds;
+    }
+
+    public void setScheduleIds(List<Long> scheduleIds) {
+        this.scheduleIds = scheduleIds;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.gym.dto;
+
+import java.util.List;
+
+public class ClosureResponse {
+    private int closedSlots; // turnos (horario + fecha) cerrados en esta operación
+    private int cancelledReservations;
+    private List<Long> affectedUserIds; // usuarios con reservas canceladas, para notificar
+
+    public int getClosedSlots() {
+        return closedSlots;
+    }
+
+    public void setClosedSlots(int closedSlots) {
+        this.closedSlots = closedSlots;
+    }
+
+    public int getCancelledReservations() {
+        return cancelledReservations;
+    }
+
+    public void setCancelledReservations(int cancelledReservations) {
+        this.cancelledReservations = cancelledReservations;
+    }
+
+    public List<Long> getAffectedUserIds() {
+        return affectedUserIds;
+    }
+
+    public void setAffectedUserIds(List<Long> affectedUserIds) {
+        this.affectedUserIds = affectedUserIds;
+    }
+}
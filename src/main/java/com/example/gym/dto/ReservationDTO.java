@@ -1,5 +1,12 @@
 package com.example.gym.dto;
 
+import com.example.gym.model.Reservation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
 public class ReservationDTO {
     public Long id;
     public Long scheduleId;
@@ -21,6 +28,29 @@ public class ReservationDTO {
     // Constructor por defecto
     public ReservationDTO() {}
 
+    // Constructor para proyecciones JPQL (SELECT new ...): solo las columnas que usa el DTO,
+    // sin hidratar las entidades User ni Schedule
+    public ReservationDTO(Long id, Long scheduleId, Long userId, LocalDate date,
+                          LocalTime startTime, LocalTime endTime, Reservation.ReservationStatus status,
+                          LocalDateTime createdAt, LocalDateTime cancelledAt,
+                          Boolean attended, LocalDateTime attendedAt,
+                          String firstName, String lastName, String email, String phone) {
+        this.id = id;
+        this.scheduleId = scheduleId;
+        this.userId = userId;
+        this.date = date.toString();
+        this.startTime = startTime.toString();
+        this.endTime = endTime.toString();
+        this.status = status.name();
+        this.createdAt = createdAt != null ? createdAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        this.cancelledAt = cancelledAt != null ? cancelledAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        this.attended = attended != null ? attended : false;
+        this.attendedAt = attendedAt != null ? attendedAt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null;
+        this.userName = (firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "");
+        this.userEmail = email != null ? email : "";
+        this.userPhone = phone != null ? phone : "";
+    }
+
     // Getters y Setters
     public Long getId() {
         return id;
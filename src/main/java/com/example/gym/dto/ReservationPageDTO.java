@@ -0,0 +1,33 @@
+package com.example.gym.dto;
+
+import java.util.List;
+
+public class ReservationPageDTO {
+    public List<ReservationDTO> items;
+    public String nextCursor; // null si no hay más páginas
+
+    // Constructor por defecto
+    public ReservationPageDTO() {}
+
+    public ReservationPageDTO(List<ReservationDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters y Setters
+    public List<ReservationDTO> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ReservationDTO> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
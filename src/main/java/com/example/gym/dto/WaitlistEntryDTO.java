@@ -0,0 +1,80 @@
+package com.example.gym.dto;
+
+public class WaitlistEntryDTO {
+    public Long id;
+    public Long scheduleId;
+    public String date; // "2025-01-15"
+    public String startTime; // "08:00"
+    public String endTime; // "09:00"
+    public String status; // "WAITING" | "PROMOTED" | "CANCELLED"
+    public String createdAt;
+    public Long position; // 1 = siguiente en ser promovido (solo para WAITING)
+
+    // Constructor por defecto
+    public WaitlistEntryDTO() {}
+
+    // Getters y Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.gym.dto;
+
+import java.util.List;
+
+public class WeekScheduleDTO {
+    public String week; // "2025-W03" (semana ISO)
+    public String weekStart; // lunes, "2025-01-13"
+    public String weekEnd; // domingo, "2025-01-19"
+    public List<WeekSlotDTO> slots; // ordenados por fecha y hora de inicio
+
+    // Constructor por defecto
+    public WeekScheduleDTO() {}
+
+    // Getters y Setters
+    public String getWeek() {
+        return week;
+    }
+
+    public void setWeek(String week) {
+        this.week = week;
+    }
+
+    public String getWeekStart() {
+        return weekStart;
+    }
+
+    public void setWeekStart(String weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    public String getWeekEnd() {
+        return weekEnd;
+    }
+
+    public void setWeekEnd(String weekEnd) {
+        this.weekEnd = weekEnd;
+    }
+
+    public List<WeekSlotDTO> getSlots() {
+        return slots;
+    }
+
+    public void setSlots(List<WeekSlotDTO> slots) {
+        this.slots = slots;
+    }
+}
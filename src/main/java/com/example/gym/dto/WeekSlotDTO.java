@@ -0,0 +1,98 @@
+package com.example.gym.dto;
+
+public class WeekSlotDTO {
+    public Long scheduleId;
+    public String date; // "2025-01-15"
+    public Integer dayOfWeek; // 0=Domingo, 1=Lunes, etc.
+    public String startTime; // "08:00"
+    public String endTime; // "09:00"
+    public Integer maxCapacity;
+    public Integer confirmedReservations;
+    public Integer availableSpots; // maxCapacity - reservas confirmadas (0 si está cerrado)
+    public Boolean closed; // fecha cerrada/pausada para este horario
+    public String description;
+
+    // Constructor por defecto
+    public WeekSlotDTO() {}
+
+    // Getters y Setters
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    public Integer getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(Integer dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+
+    public Integer getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public void setMaxCapacity(Integer maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+
+    public Integer getConfirmedReservations() {
+        return confirmedReservations;
+    }
+
+    public void setConfirmedReservations(Integer confirmedReservations) {
+        this.confirmedReservations = confirmedReservations;
+    }
+
+    public Integer getAvailableSpots() {
+        return availableSpots;
+    }
+
+    public void setAvailableSpots(Integer availableSpots) {
+        this.availableSpots = availableSpots;
+    }
+
+    public Boolean getClosed() {
+        return closed;
+    }
+
+    public void setClosed(Boolean closed) {
+        this.closed = closed;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
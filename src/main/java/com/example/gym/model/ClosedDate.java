@@ -0,0 +1,50 @@
+package com.example.gym.model;
+
+import com.example.gym.tenant.TenantEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Filter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fecha cerrada (pausada) de un horario: ese día no se permiten reservas.
+ * Reemplaza al CSV Schedule.pausedDates.
+ */
+@Entity
+@Table(
+    name = "closed_dates",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_closed_schedule_date", columnNames = {"tenant_id", "schedule_id", "date"})
+    },
+    indexes = {
+        @Index(name = "idx_closed_schedule_date", columnList = "schedule_id,date"),
+        @Index(name = "idx_closed_tenant_date", columnList = "tenant_id,date")
+    }
+)
+@Filter(name = "tenantFilter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClosedDate extends TenantEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "schedule_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Schedule schedule;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(length = 200)
+    private String reason;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
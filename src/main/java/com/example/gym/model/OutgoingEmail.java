@@ -0,0 +1,71 @@
+package com.example.gym.model;
+
+import com.example.gym.tenant.TenantEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Filter;
+import java.time.LocalDateTime;
+
+/**
+ * Email pendiente de envío (outbox). Se guarda en la misma transacción que lo origina y
+ * EmailOutboxService lo envía después del commit, en lotes y con reintentos.
+ */
+@Entity
+@Table(
+    name = "outgoing_emails",
+    indexes = {
+        @Index(name = "idx_outgoing_email_status_next", columnList = "status,next_attempt_at"),
+        @Index(name = "idx_outgoing_email_status_created", columnList = "status,created_at")
+    }
+)
+@Filter(name = "tenantFilter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutgoingEmail extends TenantEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 255)
+    private String recipient;
+
+    @Column(nullable = false, length = 255)
+    private String subject;
+
+    // Cuerpo HTML
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private EmailStatus status = EmailStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    // Momento en que el dispatcher tomó el email (para recuperar los que quedaron colgados)
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum EmailStatus {
+        PENDING, SENDING, SENT, FAILED
+    }
+}
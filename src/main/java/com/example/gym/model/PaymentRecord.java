@@ -9,7 +9,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payment_records")
+@Table(name = "payment_records", uniqueConstraints = {
+        // Un pago de MP registra una sola vez (las notificaciones repetidas no duplican el historial)
+        @UniqueConstraint(name = "uq_payment_mp_payment_id", columnNames = {"mp_payment_id"})
+})
 @org.hibernate.annotations.Filter(name = "tenantFilter")
 @Data
 @NoArgsConstructor
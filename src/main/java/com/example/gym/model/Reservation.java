@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
     },
     indexes = {
         @Index(name = "idx_res_schedule_date_status", columnList = "tenant_id,schedule_id,date,status"),
-        @Index(name = "idx_res_user_schedule_date_status", columnList = "tenant_id,user_id,schedule_id,date,status")
+        @Index(name = "idx_res_user_schedule_date_status", columnList = "tenant_id,user_id,schedule_id,date,status"),
+        @Index(name = "idx_res_status_date", columnList = "tenant_id,status,date")
     }
 )
 @Filter(name = "tenantFilter")
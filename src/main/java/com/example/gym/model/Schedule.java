@@ -44,7 +44,8 @@ public class Schedule extends TenantEntity {
     @Column
     private String description;
 
-    // Fechas pausadas (CSV de YYYY-MM-DD). Si una fecha está aquí, no se permiten reservas ese día.
+    // Legado: fechas pausadas en CSV (YYYY-MM-DD). Ahora se guardan en closed_dates;
+    // ClosedDateService migra este valor al iniciar y lo deja en null. No usar.
     @Column(name = "paused_dates", length = 1000)
     private String pausedDates;
 
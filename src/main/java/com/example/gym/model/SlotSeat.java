@@ -0,0 +1,38 @@
+package com.example.gym.model;
+
+import com.example.gym.tenant.TenantEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Filter;
+import java.time.LocalDate;
+
+/**
+ * Contador de cupos tomados por horario y fecha. Lo usa el modo de admisión optimista:
+ * cada reserva incrementa "taken" con un UPDATE condicional en lugar de bloquear el horario.
+ */
+@Entity
+@Table(
+    name = "slot_seats",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_slot_seat_schedule_date", columnNames = {"schedule_id", "slot_date"})
+    }
+)
+@Filter(name = "tenantFilter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlotSeat extends TenantEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+
+    @Column(name = "slot_date", nullable = false)
+    private LocalDate slotDate;
+
+    @Column(nullable = false)
+    private int taken;
+}
@@ -8,7 +8,12 @@ import lombok.*;
 import org.hibernate.annotations.Filter;
 
 @Entity
-@Table(name = "subscriptions")
+@Table(
+    name = "subscriptions",
+    indexes = {
+        @Index(name = "idx_subscriptions_user_status", columnList = "tenant_id,user_id,status")
+    }
+)
 @Filter(name = "tenantFilter")
 @Data
 @NoArgsConstructor
@@ -11,6 +11,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "users", uniqueConstraints = {
     @UniqueConstraint(name = "uq_user_tenant_email", columnNames = {"tenant_id", "email"})
+}, indexes = {
+    @Index(name = "idx_users_token_revoked_at", columnList = "token_revoked_at")
 })
 @Filter(name = "tenantFilter")
 @Data
@@ -76,6 +78,16 @@ public class User extends TenantEntity {
     @Column(length = 500)
     private String trainingPlanUrl;
 
+    // Versión de los JWT del usuario: al incrementarla se invalidan los tokens emitidos antes
+    // (desactivación, cambio de rol, reset de contraseña)
+    @Column(columnDefinition = "INT DEFAULT 0 NOT NULL")
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
+    // Última vez que se incrementó tokenVersion: las demás instancias consultan los cambios recientes
+    @Column(name = "token_revoked_at")
+    private LocalDateTime tokenRevokedAt;
+
     // Eliminado Set<Role> roles
 
     public enum UserStatus { ACTIVE, INACTIVE, SUSPENDED }
@@ -0,0 +1,62 @@
+package com.example.gym.model;
+
+import com.example.gym.tenant.TenantEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Filter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Lugar en la lista de espera de un turno completo (horario + fecha).
+ * Al liberarse un cupo se promueve la entrada WAITING más antigua (FIFO).
+ */
+@Entity
+@Table(
+    name = "waitlist_entries",
+    indexes = {
+        @Index(name = "idx_waitlist_slot_status_created", columnList = "tenant_id,schedule_id,date,status,created_at"),
+        @Index(name = "idx_waitlist_user_status", columnList = "tenant_id,user_id,status")
+    }
+)
+@Filter(name = "tenantFilter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry extends TenantEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "schedule_id", nullable = false)
+    private Schedule schedule;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    @Column
+    private LocalDateTime resolvedAt;
+
+    // Reserva creada al promover la entrada
+    @Column
+    private Long reservationId;
+
+    public enum WaitlistStatus {
+        WAITING, PROMOTED, CANCELLED
+    }
+}
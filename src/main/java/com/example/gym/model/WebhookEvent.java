@@ -0,0 +1,73 @@
+package com.example.gym.model;
+
+import com.example.gym.tenant.TenantEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Filter;
+import java.time.LocalDateTime;
+
+/**
+ * Notificación de Mercado Pago recibida por el webhook y pendiente de procesar.
+ * El webhook solo la guarda; WebhookInboxService la procesa en segundo plano con reintentos.
+ */
+@Entity
+@Table(
+    name = "webhook_events",
+    indexes = {
+        @Index(name = "idx_webhook_status_next", columnList = "status,next_attempt_at"),
+        @Index(name = "idx_webhook_status_received", columnList = "status,received_at")
+    }
+)
+@Filter(name = "tenantFilter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvent extends TenantEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Tipo de notificación ("payment")
+    @Column(name = "event_type", nullable = false, length = 50)
+    private String eventType;
+
+    // ID del recurso notificado (ej. ID del pago en MP)
+    @Column(name = "resource_id", nullable = false, length = 100)
+    private String resourceId;
+
+    // Body original de la notificación
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private WebhookStatus status = WebhookStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer attempts = 0;
+
+    @Column(name = "received_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime receivedAt = LocalDateTime.now();
+
+    @Column(name = "next_attempt_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    // Momento en que un worker tomó el evento (para recuperar los que quedaron colgados)
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public enum WebhookStatus {
+        PENDING, PROCESSING, DONE, FAILED
+    }
+}
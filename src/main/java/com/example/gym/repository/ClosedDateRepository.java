@@ -0,0 +1,51 @@
+package com.example.gym.repository;
+
+import com.example.gym.model.ClosedDate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface ClosedDateRepository extends JpaRepository<ClosedDate, Long> {
+
+    // Verificar si un horario está cerrado en una fecha
+    @Query("SELECT COUNT(c) > 0 FROM ClosedDate c WHERE c.schedule.id = :scheduleId AND c.date = :date")
+    boolean isClosed(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
+
+    // Pares (horario, fecha) cerrados dentro de un rango, para armar disponibilidad sin consultar por slot
+    @Query("SELECT c.schedule.id AS scheduleId, c.date AS date FROM ClosedDate c WHERE c.date BETWEEN :from AND :to")
+    List<ClosedSlot> findClosedSlotsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Fechas cerradas de un horario desde una fecha
+    @Query("SELECT c FROM ClosedDate c WHERE c.schedule.id = :scheduleId AND c.date >= :fromDate ORDER BY c.date")
+    List<ClosedDate> findByScheduleFrom(@Param("scheduleId") Long scheduleId, @Param("fromDate") LocalDate fromDate);
+
+    // Reabrir un horario en una fecha
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClosedDate c WHERE c.schedule.id = :scheduleId AND c.date = :date")
+    int deleteByScheduleIdAndDate(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
+
+    // Reabrir varios horarios dentro de un rango
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClosedDate c WHERE c.schedule.id IN :scheduleIds AND c.date BETWEEN :from AND :to")
+    int deleteInRange(@Param("scheduleIds") Collection<Long> scheduleIds, @Param("from") LocalDate from,
+                      @Param("to") LocalDate to);
+
+    // Borrar las fechas cerradas de un horario (antes de eliminarlo)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClosedDate c WHERE c.schedule.id = :scheduleId")
+    int deleteByScheduleId(@Param("scheduleId") Long scheduleId);
+
+    // Proyección de un turno cerrado
+    interface ClosedSlot {
+        Long getScheduleId();
+        LocalDate getDate();
+    }
+}
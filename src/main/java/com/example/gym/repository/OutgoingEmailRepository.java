@@ -0,0 +1,61 @@
+package com.example.gym.repository;
+
+import com.example.gym.model.OutgoingEmail;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutgoingEmailRepository extends JpaRepository<OutgoingEmail, Long> {
+
+    // Emails pendientes cuyo próximo intento ya venció, los más viejos primero (todos los tenants)
+    @Query("SELECT e.id FROM OutgoingEmail e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt ASC, e.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Toma un email pendiente para enviarlo; devuelve 0 si otra instancia ya lo tomó
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutgoingEmail e SET e.status = 'SENDING', e.lockedAt = :now WHERE e.id = :id AND e.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Guarda el resultado de un envío solo si el email sigue tomado por el mismo claim;
+    // devuelve 0 si se liberó por abandonado y otra corrida lo volvió a tomar
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutgoingEmail e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.sentAt = :sentAt, e.lastError = :lastError, e.lockedAt = NULL " +
+           "WHERE e.id = :id AND e.status = 'SENDING' AND e.lockedAt = :claimedAt")
+    int finish(@Param("id") Long id,
+               @Param("claimedAt") LocalDateTime claimedAt,
+               @Param("status") OutgoingEmail.EmailStatus status,
+               @Param("attempts") Integer attempts,
+               @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+               @Param("sentAt") LocalDateTime sentAt,
+               @Param("lastError") String lastError);
+
+    // Devuelve a la cola los emails que quedaron tomados (ej. reinicio a mitad de un envío)
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutgoingEmail e SET e.status = 'PENDING' WHERE e.status = 'SENDING' AND e.lockedAt < :staleBefore")
+    int releaseStale(@Param("staleBefore") LocalDateTime staleBefore);
+
+    // Emails pendientes de envío
+    @Query("SELECT COUNT(e) FROM OutgoingEmail e WHERE e.status = 'PENDING'")
+    long countPending();
+
+    // Creación del email pendiente más antiguo (para medir el atraso)
+    @Query("SELECT MIN(e.createdAt) FROM OutgoingEmail e WHERE e.status = 'PENDING'")
+    LocalDateTime findOldestPendingCreatedAt();
+
+    // Borrar emails terminados con un estado dado creados antes de una fecha (limpieza periódica)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutgoingEmail e WHERE e.status = :status AND e.createdAt < :before")
+    int deleteByStatusCreatedBefore(@Param("status") OutgoingEmail.EmailStatus status,
+                                    @Param("before") LocalDateTime before);
+}
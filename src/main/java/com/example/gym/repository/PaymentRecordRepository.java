@@ -16,6 +16,9 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, Lo
 
     List<PaymentRecord> findByUserIdAndStatusOrderByCreatedAtDesc(Long userId, PaymentRecord.PaymentStatus status);
 
+    // Si el pago de MP ya fue registrado (idempotencia de la activación)
+    boolean existsByMpPaymentId(String mpPaymentId);
+
     // Pagos aprobados de un mes/año — usa paymentDate si está disponible, sino createdAt
     @Query("SELECT r FROM PaymentRecord r LEFT JOIN FETCH r.user LEFT JOIN FETCH r.plan LEFT JOIN FETCH r.registeredBy " +
            "WHERE r.status = 'APPROVED' AND r.amount > 0 AND (" +
@@ -1,26 +1,57 @@
 package com.example.gym.repository;
 
+import com.example.gym.dto.ReservationDTO;
 import com.example.gym.model.Reservation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+    // Columnas de ReservationDTO para las lecturas de listados (sin hidratar User ni Schedule).
+    // Las consultas que lo usan deben definir los alias r (reserva), u (usuario) y s (horario).
+    String DTO_COLUMNS = "new com.example.gym.dto.ReservationDTO(r.id, s.id, u.id, r.date, s.startTime, s.endTime, " +
+        "r.status, r.createdAt, r.cancelledAt, r.attended, r.attendedAt, u.firstName, u.lastName, u.email, u.phone)";
     
-    // Buscar reservas confirmadas de un usuario con JOIN FETCH para evitar lazy loading
-    @Query("SELECT r FROM Reservation r JOIN FETCH r.user u JOIN FETCH r.schedule s WHERE r.user.id = :userId AND r.status = 'CONFIRMED' ORDER BY r.date DESC, s.startTime")
-    List<Reservation> findByUserIdAndConfirmedStatus(@Param("userId") Long userId);
+    // Reservas confirmadas de un usuario, proyectadas a ReservationDTO
+    @Query("SELECT " + DTO_COLUMNS + " FROM Reservation r JOIN r.user u JOIN r.schedule s " +
+           "WHERE u.id = :userId AND r.status = 'CONFIRMED' ORDER BY r.date DESC, s.startTime")
+    List<ReservationDTO> findConfirmedDTOsByUserId(@Param("userId") Long userId);
     
-    // Buscar reservas confirmadas por fecha con JOIN FETCH
-    @Query("SELECT r FROM Reservation r JOIN FETCH r.user u JOIN FETCH r.schedule s WHERE r.date = :date AND r.status = 'CONFIRMED' ORDER BY s.startTime")
-    List<Reservation> findByDateAndConfirmedStatus(@Param("date") LocalDate date);
+    // Reservas confirmadas de una fecha, proyectadas a ReservationDTO
+    @Query("SELECT " + DTO_COLUMNS + " FROM Reservation r JOIN r.user u JOIN r.schedule s " +
+           "WHERE r.date = :date AND r.status = 'CONFIRMED' ORDER BY s.startTime")
+    List<ReservationDTO> findConfirmedDTOsByDate(@Param("date") LocalDate date);
     
     // Contar reservas confirmadas para un horario específico en una fecha
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.schedule.id = :scheduleId AND r.date = :date AND r.status = 'CONFIRMED'")
     Long countConfirmedReservationsByScheduleAndDate(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
     
+    // Contar reservas confirmadas agrupadas por horario y fecha dentro de un rango (una sola consulta)
+    @Query("SELECT r.schedule.id AS scheduleId, r.date AS slotDate, COUNT(r) AS confirmed FROM Reservation r " +
+           "WHERE r.date BETWEEN :from AND :to AND r.status = 'CONFIRMED' GROUP BY r.schedule.id, r.date")
+    List<SlotCount> countConfirmedGroupedByScheduleAndDate(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Igual que la anterior pero filtrando por tenant explícito (jobs sin filtro de Hibernate activo)
+    @Query("SELECT r.schedule.id AS scheduleId, r.date AS slotDate, COUNT(r) AS confirmed FROM Reservation r " +
+           "WHERE r.tenantId = :tenantId AND r.date BETWEEN :from AND :to AND r.status = 'CONFIRMED' " +
+           "GROUP BY r.schedule.id, r.date")
+    List<SlotCount> countConfirmedGroupedByScheduleAndDateForTenant(@Param("tenantId") String tenantId,
+                                                                    @Param("from") LocalDate from,
+                                                                    @Param("to") LocalDate to);
+    
     // Verificar si un usuario ya tiene reserva confirmada para un horario y fecha específicos
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.user.id = :userId AND r.schedule.id = :scheduleId AND r.date = :date")
     Long countByUserAndScheduleAndDate(@Param("userId") Long userId, @Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
@@ -33,9 +64,34 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT COUNT(r) FROM Reservation r WHERE r.user.id = :userId AND r.schedule.id = :scheduleId AND r.date = :date AND r.status = 'CANCELLED' AND r.cancelledByUserId IS NOT NULL")
     Long countStaffCancelledByUserAndScheduleAndDate(@Param("userId") Long userId, @Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
     
-    // Buscar todas las reservas confirmadas con JOIN FETCH
-    @Query("SELECT r FROM Reservation r JOIN FETCH r.user u JOIN FETCH r.schedule s WHERE r.status = 'CONFIRMED' ORDER BY r.date DESC, s.startTime")
-    List<Reservation> findAllConfirmedReservations();
+    // Listado paginado por keyset (fecha DESC, hora de inicio ASC, id ASC): primera página del rango
+    @Query("SELECT " + DTO_COLUMNS + " FROM Reservation r JOIN r.user u JOIN r.schedule s " +
+           "WHERE r.status = 'CONFIRMED' AND r.date BETWEEN :from AND :to " +
+           "ORDER BY r.date DESC, s.startTime ASC, r.id ASC")
+    List<ReservationDTO> findConfirmedDTOPage(@Param("from") LocalDate from,
+                                              @Param("to") LocalDate to,
+                                              Pageable pageable);
+
+    // Listado paginado por keyset: filas posteriores al cursor (última fila de la página anterior)
+    @Query("SELECT " + DTO_COLUMNS + " FROM Reservation r JOIN r.user u JOIN r.schedule s " +
+           "WHERE r.status = 'CONFIRMED' AND r.date BETWEEN :from AND :to " +
+           "AND (r.date < :cursorDate OR (r.date = :cursorDate AND (s.startTime > :cursorStart " +
+           "OR (s.startTime = :cursorStart AND r.id > :cursorId)))) " +
+           "ORDER BY r.date DESC, s.startTime ASC, r.id ASC")
+    List<ReservationDTO> findConfirmedDTOPageAfter(@Param("from") LocalDate from,
+                                                   @Param("to") LocalDate to,
+                                                   @Param("cursorDate") LocalDate cursorDate,
+                                                   @Param("cursorStart") LocalTime cursorStart,
+                                                   @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+
+    // Reservas confirmadas de un rango como Stream, para exportar sin cargar todo en memoria.
+    // Debe consumirse dentro de una transacción y cerrarse al terminar.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + DTO_COLUMNS + " FROM Reservation r JOIN r.user u JOIN r.schedule s " +
+           "WHERE r.status = 'CONFIRMED' AND r.date BETWEEN :from AND :to " +
+           "ORDER BY r.date DESC, s.startTime ASC, r.id ASC")
+    Stream<ReservationDTO> streamConfirmedDTOsBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
 
     // Buscar todas las reservas (cualquier status) asociadas a un schedule
     List<Reservation> findByScheduleId(Long scheduleId);
@@ -62,4 +118,58 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     Long countAttendedInWeek(@Param("userId") Long userId,
                              @Param("weekStart") LocalDate weekStart,
                              @Param("weekEnd") LocalDate weekEnd);
+
+    // Usuarios con reservas confirmadas en varios horarios dentro de un rango (a notificar en cierres masivos)
+    @Query("SELECT DISTINCT r.user.id FROM Reservation r WHERE r.schedule.id IN :scheduleIds " +
+           "AND r.date BETWEEN :from AND :to AND r.status = 'CONFIRMED'")
+    List<Long> findConfirmedUserIdsByScheduleIdsAndDateRange(@Param("scheduleIds") Collection<Long> scheduleIds,
+                                                             @Param("from") LocalDate from,
+                                                             @Param("to") LocalDate to);
+
+    // Cancelar en un solo UPDATE las reservas confirmadas de varios horarios dentro de un rango
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Reservation r SET r.status = 'CANCELLED', r.cancelledAt = :now, r.cancellationReason = :reason " +
+           "WHERE r.schedule.id IN :scheduleIds AND r.date BETWEEN :from AND :to AND r.status = 'CONFIRMED'")
+    int cancelConfirmedByScheduleIdsAndDateRange(@Param("scheduleIds") Collection<Long> scheduleIds,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to,
+                                                 @Param("now") LocalDateTime now,
+                                                 @Param("reason") String reason);
+
+    // Todos los datos de elegibilidad para reservar (duplicado, cancelación del staff, límite semanal
+    // del plan y cupos ocupados) en una sola consulta. daysPerWeek es null si no hay plan activo.
+    @Query("SELECT " +
+           "(SELECT COUNT(r1) FROM Reservation r1 WHERE r1.user.id = :userId AND r1.schedule.id = :scheduleId " +
+           "   AND r1.date = :date AND r1.status = 'CONFIRMED') AS alreadyBooked, " +
+           "(SELECT COUNT(r2) FROM Reservation r2 WHERE r2.user.id = :userId AND r2.schedule.id = :scheduleId " +
+           "   AND r2.date = :date AND r2.status = 'CANCELLED' AND r2.cancelledByUserId IS NOT NULL) AS staffCancelled, " +
+           "(SELECT MAX(p.daysPerWeek) FROM Subscription s JOIN s.plan p " +
+           "   WHERE s.user.id = :userId AND s.status = 'ACTIVE') AS daysPerWeek, " +
+           "(SELECT COUNT(r3) FROM Reservation r3 WHERE r3.user.id = :userId AND r3.attended = true " +
+           "   AND r3.date BETWEEN :weekStart AND :weekEnd) AS attendedInWeek, " +
+           "(SELECT COUNT(r4) FROM Reservation r4 WHERE r4.schedule.id = :scheduleId " +
+           "   AND r4.date = :date AND r4.status = 'CONFIRMED') AS confirmedInSlot " +
+           "FROM Schedule sc WHERE sc.id = :scheduleId")
+    ReservationEligibility findReservationEligibility(@Param("userId") Long userId,
+                                                      @Param("scheduleId") Long scheduleId,
+                                                      @Param("date") LocalDate date,
+                                                      @Param("weekStart") LocalDate weekStart,
+                                                      @Param("weekEnd") LocalDate weekEnd);
+
+    // Proyección de elegibilidad para una reserva
+    interface ReservationEligibility {
+        Long getAlreadyBooked();
+        Long getStaffCancelled();
+        Integer getDaysPerWeek();
+        Long getAttendedInWeek();
+        Long getConfirmedInSlot();
+    }
+
+    // Proyección de conteo de reservas confirmadas por horario y fecha
+    interface SlotCount {
+        Long getScheduleId();
+        LocalDate getSlotDate();
+        Long getConfirmed();
+    }
 }
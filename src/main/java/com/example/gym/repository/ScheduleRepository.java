@@ -18,12 +18,24 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     @Query("SELECT s FROM Schedule s WHERE s.dayOfWeek = :dayOfWeek AND s.isActive = true")
     List<Schedule> findByDayOfWeekAndIsActive(@Param("dayOfWeek") Integer dayOfWeek);
     
+    // Horarios activos de un día que no están cerrados en la fecha indicada
+    @Query("SELECT s FROM Schedule s WHERE s.dayOfWeek = :dayOfWeek AND s.isActive = true " +
+           "AND NOT EXISTS (SELECT c FROM ClosedDate c WHERE c.schedule = s AND c.date = :date)")
+    List<Schedule> findOpenByDayOfWeekAndDate(@Param("dayOfWeek") Integer dayOfWeek, @Param("date") java.time.LocalDate date);
+
     // Obtener todos los horarios activos ordenados por día y hora
     @Query("SELECT s FROM Schedule s WHERE s.isActive = true ORDER BY s.dayOfWeek, s.startTime")
     List<Schedule> findAllActiveOrderedByDayAndTime();
     
     // Buscar horarios activos
     List<Schedule> findByIsActiveTrue();
+
+    // Ids de todos los horarios, sin cargar las entidades
+    @Query("SELECT s.id FROM Schedule s")
+    List<Long> findAllIds();
+
+    // Horarios con fechas pausadas en el CSV legado (pendientes de migrar a closed_dates)
+    List<Schedule> findByPausedDatesIsNotNull();
     
     // Verificar si existe un horario exacto duplicado (mismo día, hora inicio y fin)
     @Query("SELECT COUNT(s) FROM Schedule s WHERE s.dayOfWeek = :dayOfWeek " +
@@ -48,6 +60,10 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
                                                            @Param("endTime") java.time.LocalTime endTime,
                                                            @Param("excludeId") Long excludeId);
 
+       // Obtener un horario por id con JPQL, para que aplique el filtro de tenant (findById usa em.find y no lo aplica)
+       @Query("SELECT s FROM Schedule s WHERE s.id = :id")
+       Optional<Schedule> findScopedById(@Param("id") Long id);
+
        // Obtener un horario con bloqueo PESSIMISTIC_WRITE para evitar sobre-reservas concurrentes
        @Lock(LockModeType.PESSIMISTIC_WRITE)
        @Query("SELECT s FROM Schedule s WHERE s.id = :id")
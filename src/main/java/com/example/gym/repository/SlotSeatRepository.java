@@ -0,0 +1,56 @@
+package com.example.gym.repository;
+
+import com.example.gym.model.SlotSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface SlotSeatRepository extends JpaRepository<SlotSeat, Long> {
+
+    boolean existsByScheduleIdAndSlotDate(Long scheduleId, LocalDate slotDate);
+
+    // Crear el contador si no existe, sin error si otra transacción lo creó primero (MySQL).
+    // Se ejecuta antes del UPDATE condicional: así la transacción no toma un gap lock que
+    // bloquee su propio INSERT ni el de otro request que siembra el mismo turno.
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO slot_seats (tenant_id, schedule_id, slot_date, taken) " +
+                   "VALUES (:tenantId, :scheduleId, :date, :taken) ON DUPLICATE KEY UPDATE taken = taken",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("tenantId") String tenantId, @Param("scheduleId") Long scheduleId,
+                       @Param("date") LocalDate date, @Param("taken") int taken);
+
+    // Tomar un cupo solo si quedan libres (0 filas actualizadas = cupo agotado o contador inexistente)
+    @Modifying
+    @Transactional
+    @Query("UPDATE SlotSeat s SET s.taken = s.taken + 1 " +
+           "WHERE s.scheduleId = :scheduleId AND s.slotDate = :date AND s.taken < :capacity")
+    int takeSeatIfAvailable(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date,
+                            @Param("capacity") int capacity);
+
+    // Sumar un cupo sin validar capacidad (modo con bloqueo, que ya validó contra reservations)
+    @Modifying
+    @Transactional
+    @Query("UPDATE SlotSeat s SET s.taken = s.taken + 1 WHERE s.scheduleId = :scheduleId AND s.slotDate = :date")
+    int incrementTaken(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date);
+
+    // Liberar cupos sin bajar de cero
+    @Modifying
+    @Transactional
+    @Query("UPDATE SlotSeat s SET s.taken = CASE WHEN s.taken > :count THEN s.taken - :count ELSE 0 END " +
+           "WHERE s.scheduleId = :scheduleId AND s.slotDate = :date")
+    int releaseSeats(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date,
+                     @Param("count") int count);
+
+    // Dejar en cero los contadores de varios horarios dentro de un rango (cierres masivos)
+    @Modifying
+    @Transactional
+    @Query("UPDATE SlotSeat s SET s.taken = 0 WHERE s.scheduleId IN :scheduleIds AND s.slotDate BETWEEN :from AND :to")
+    int resetTakenInRange(@Param("scheduleIds") Collection<Long> scheduleIds, @Param("from") LocalDate from,
+                          @Param("to") LocalDate to);
+}
@@ -2,9 +2,13 @@ package com.example.gym.repository;
 
 import com.example.gym.model.Subscription;
 import com.example.gym.model.User;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,8 +16,20 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Long
 
     List<Subscription> findByUser(User user);
 
-    @Query("SELECT s FROM Subscription s JOIN FETCH s.plan WHERE s.user.id = :userId AND s.status = 'ACTIVE' ORDER BY s.startDate DESC")
-    Optional<Subscription> findActiveByUserId(@Param("userId") Long userId);
+    // Suscripción activa más reciente del usuario, con el plan (una sola fila, usa idx_subscriptions_user_status)
+    default Optional<Subscription> findActiveByUserId(Long userId) {
+        return findActiveWithPlan(userId, PageRequest.of(0, 1)).stream().findFirst();
+    }
+
+    @Query("SELECT s FROM Subscription s JOIN FETCH s.plan WHERE s.user.id = :userId AND s.status = 'ACTIVE' " +
+           "ORDER BY s.startDate DESC, s.id DESC")
+    List<Subscription> findActiveWithPlan(@Param("userId") Long userId, Pageable pageable);
+
+    // Cancelar en un solo UPDATE las suscripciones activas de un usuario
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE Subscription s SET s.status = 'CANCELED' WHERE s.user.id = :userId AND s.status = 'ACTIVE'")
+    int cancelActiveByUserId(@Param("userId") Long userId);
 
     @Query("SELECT COUNT(s) > 0 FROM Subscription s WHERE s.plan.id = :planId AND s.status = 'ACTIVE'")
     boolean existsActiveByPlanId(@Param("planId") Long planId);
@@ -26,4 +26,19 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT u FROM User u WHERE u.tenantId = :tenantId AND " +
            "(LOWER(u.firstName) LIKE LOWER(CONCAT('%',:name,'%')) OR LOWER(u.lastName) LIKE LOWER(CONCAT('%',:name,'%'))) ")
     List<User> findByNameLike(@Param("tenantId") String tenantId, @Param("name") String name);
+
+    // Usuarios con tokens revocados alguna vez (todos los tenants), para el registro de revocación al iniciar
+    @Query("SELECT u.tenantId AS tenantId, u.id AS userId, u.tokenVersion AS tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<TokenVersion> findRevokedTokenVersions();
+
+    // Versiones de tokens incrementadas desde un momento (todos los tenants), para sincronizar instancias
+    @Query("SELECT u.tenantId AS tenantId, u.id AS userId, u.tokenVersion AS tokenVersion FROM User u " +
+           "WHERE u.tokenRevokedAt >= :since")
+    List<TokenVersion> findTokenVersionsRevokedSince(@Param("since") LocalDateTime since);
+
+    interface TokenVersion {
+        String getTenantId();
+        Long getUserId();
+        Integer getTokenVersion();
+    }
 }
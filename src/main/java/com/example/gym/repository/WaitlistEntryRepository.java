@@ -0,0 +1,62 @@
+package com.example.gym.repository;
+
+import com.example.gym.model.WaitlistEntry;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Primera entrada en espera de un turno (FIFO), bloqueada para que dos promociones concurrentes no tomen la misma
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.user WHERE w.schedule.id = :scheduleId AND w.date = :date " +
+           "AND w.status = 'WAITING' ORDER BY w.createdAt ASC, w.id ASC")
+    List<WaitlistEntry> findNextWaiting(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date, Pageable pageable);
+
+    // Verificar si el usuario ya está en espera para un turno
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.user.id = :userId AND w.schedule.id = :scheduleId " +
+           "AND w.date = :date AND w.status = 'WAITING'")
+    Long countWaitingByUserAndScheduleAndDate(@Param("userId") Long userId, @Param("scheduleId") Long scheduleId,
+                                              @Param("date") LocalDate date);
+
+    // Posición en la fila: cuántas entradas en espera se anotaron antes (o al mismo tiempo con menor id)
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.schedule.id = :scheduleId AND w.date = :date " +
+           "AND w.status = 'WAITING' AND (w.createdAt < :createdAt OR (w.createdAt = :createdAt AND w.id < :id))")
+    Long countAhead(@Param("scheduleId") Long scheduleId, @Param("date") LocalDate date,
+                    @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id);
+
+    // Entradas en espera de un usuario desde una fecha, con horario para armar el DTO
+    @Query("SELECT w FROM WaitlistEntry w JOIN FETCH w.schedule WHERE w.user.id = :userId AND w.status = 'WAITING' " +
+           "AND w.date >= :fromDate ORDER BY w.date ASC, w.createdAt ASC")
+    List<WaitlistEntry> findWaitingByUser(@Param("userId") Long userId, @Param("fromDate") LocalDate fromDate);
+
+    // Cancelar las entradas en espera de varios horarios dentro de un rango (cierres masivos)
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED', w.resolvedAt = :now " +
+           "WHERE w.schedule.id IN :scheduleIds AND w.date BETWEEN :from AND :to AND w.status = 'WAITING'")
+    int cancelWaitingForSlots(@Param("scheduleIds") Collection<Long> scheduleIds, @Param("from") LocalDate from,
+                              @Param("to") LocalDate to, @Param("now") LocalDateTime now);
+
+    // Cancelar todas las entradas en espera de un usuario (ej. desactivación)
+    @Modifying
+    @Transactional
+    @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED', w.resolvedAt = :now " +
+           "WHERE w.user.id = :userId AND w.status = 'WAITING'")
+    int cancelWaitingByUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    // Borrar la lista de espera de un horario (antes de eliminarlo)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WaitlistEntry w WHERE w.schedule.id = :scheduleId")
+    int deleteByScheduleId(@Param("scheduleId") Long scheduleId);
+}
@@ -0,0 +1,62 @@
+package com.example.gym.repository;
+
+import com.example.gym.model.WebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+
+    // Eventos pendientes cuyo próximo intento ya venció, los más atrasados primero (todos los tenants)
+    @Query("SELECT e.id FROM WebhookEvent e WHERE e.status = 'PENDING' AND e.nextAttemptAt <= :now " +
+           "ORDER BY e.nextAttemptAt ASC, e.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Toma un evento pendiente para procesarlo; devuelve 0 si otro worker (u otra instancia) ya lo tomó
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookEvent e SET e.status = 'PROCESSING', e.lockedAt = :now " +
+           "WHERE e.id = :id AND e.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Guarda el resultado de un intento solo si el evento sigue tomado por el mismo claim;
+    // devuelve 0 si se liberó por abandonado y otro worker lo volvió a tomar
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookEvent e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.processedAt = :processedAt, e.lastError = :lastError, e.lockedAt = NULL " +
+           "WHERE e.id = :id AND e.status = 'PROCESSING' AND e.lockedAt = :claimedAt")
+    int finish(@Param("id") Long id,
+               @Param("claimedAt") LocalDateTime claimedAt,
+               @Param("status") WebhookEvent.WebhookStatus status,
+               @Param("attempts") Integer attempts,
+               @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+               @Param("processedAt") LocalDateTime processedAt,
+               @Param("lastError") String lastError);
+
+    // Devuelve a la cola los eventos que quedaron en proceso (ej. reinicio a mitad de un intento)
+    @Modifying
+    @Transactional
+    @Query("UPDATE WebhookEvent e SET e.status = 'PENDING' WHERE e.status = 'PROCESSING' AND e.lockedAt < :staleBefore")
+    int releaseStale(@Param("staleBefore") LocalDateTime staleBefore);
+
+    // Profundidad de la cola
+    @Query("SELECT COUNT(e) FROM WebhookEvent e WHERE e.status = 'PENDING'")
+    long countPending();
+
+    // Recepción del evento pendiente más antiguo (para medir el atraso)
+    @Query("SELECT MIN(e.receivedAt) FROM WebhookEvent e WHERE e.status = 'PENDING'")
+    LocalDateTime findOldestPendingReceivedAt();
+
+    // Borrar eventos terminados con un estado dado recibidos antes de una fecha (limpieza periódica)
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WebhookEvent e WHERE e.status = :status AND e.receivedAt < :before")
+    int deleteByStatusReceivedBefore(@Param("status") WebhookEvent.WebhookStatus status,
+                                     @Param("before") LocalDateTime before);
+}
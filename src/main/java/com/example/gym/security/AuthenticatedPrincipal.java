@@ -0,0 +1,30 @@
+package com.example.gym.security;
+
+import com.example.gym.model.User;
+
+/**
+ * Datos mínimos del usuario autenticado que necesita la capa de seguridad en cada request.
+ * Es inmutable y se cachea por (tenant, email) en PrincipalCache.
+ */
+public record AuthenticatedPrincipal(Long id, String email, User.UserRole role, User.UserStatus status, String tenantId) {
+
+    public static AuthenticatedPrincipal from(User user) {
+        return new AuthenticatedPrincipal(user.getId(), user.getEmail(), user.getRole(), user.getStatus(), user.getTenantId());
+    }
+
+    /**
+     * User desacoplado de la sesión con solo id, email, rol, estado y tenant. Sirve para los
+     * controllers que leen esos campos o lo usan como referencia en relaciones (ej. reservas);
+     * los endpoints que necesitan el perfil completo lo cargan con UserRepository.
+     */
+    public User toUserReference() {
+        User user = User.builder()
+            .id(id)
+            .email(email)
+            .role(role)
+            .status(status)
+            .build();
+        user.setTenantId(tenantId);
+        return user;
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.gym.security;
 
 import com.example.gym.model.User;
-import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,57 +17,60 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
     @Autowired
-    private UserRepository userRepository;
+    private PrincipalCache principalCache;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    // Una lista de authorities por rol, compartida entre requests
+    private static final Map<User.UserRole, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(User.UserRole.class);
+    static {
+        for (User.UserRole role : User.UserRole.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String path = request.getServletPath();
+        RouteClassifier.RoutePolicy route = RouteClassifier.classify(request);
         
         // Endpoints públicos que no requieren autenticación
-        if (path.equals("/api/auth/register") || 
-            path.equals("/api/auth/login") ||
-            path.equals("/api/auth/forgot-password") ||
-            path.equals("/api/auth/reset-password") ||
-            path.equals("/api/auth/validate-reset-token")) {
+        if (!route.requiresJwt()) {
             filterChain.doFilter(request, response);
             return;
         }
         
         // Para todos los demás endpoints, verificar JWT
         String header = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
+        Claims claims = null;
         
         if (header != null && header.startsWith("Bearer ")) {
-            token = header.substring(7);
             try {
-                email = jwtUtil.getEmailFromToken(token);
+                // Una sola verificación de firma y expiración por request
+                claims = jwtUtil.parseClaims(header.substring(7));
             } catch (Exception e) {
                 // Token inválido o expirado - no loguear detalles en producción
             }
         }
         
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            User user = userRepository.findByEmail(email).orElse(null);
-            if (user != null && jwtUtil.validateToken(token)) {
-                boolean isActive = user.getStatus() == User.UserStatus.ACTIVE;
-                boolean allowedForInactive = path.equals("/api/auth/me")
-                        || path.equals("/api/me")
-                        || path.startsWith("/api/membership-plans")
-                        || path.equals("/api/mp/preference")
-                        || path.startsWith("/api/payments/");
-
-                if (isActive || allowedForInactive) {
-                    SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
+        if (claims != null && claims.getSubject() != null
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedPrincipal principal = resolvePrincipal(claims);
+            if (principal != null) {
+                boolean isActive = principal.status() == User.UserStatus.ACTIVE;
+                if (isActive || route.allowsInactive()) {
+                    // El principal sigue siendo un User (los controllers lo castean), sin cargar la entidad
                     UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                            user, null, java.util.List.of(authority));
+                            principal.toUserReference(), null, AUTHORITIES.get(principal.role()));
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
@@ -74,4 +79,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    // Tokens con uid/tid/st/ver: el principal sale de los claims, sin I/O, salvo que el token diga
+    // que el usuario no está activo (puede haberse activado después del login) o que sea un token
+    // emitido antes de estos claims. En esos casos se resuelve con PrincipalCache.
+    private AuthenticatedPrincipal resolvePrincipal(Claims claims) {
+        Long userId = claims.get(JwtUtil.CLAIM_USER_ID, Long.class);
+        if (userId == null) {
+            return principalCache.get(claims.getSubject()).orElse(null);
+        }
+
+        String tokenTenant = claims.get(JwtUtil.CLAIM_TENANT_ID, String.class);
+        String currentTenant = TenantContext.getCurrentTenant();
+        if (currentTenant != null && tokenTenant != null && !currentTenant.equals(tokenTenant)) {
+            return null; // token de otro gimnasio
+        }
+
+        Integer version = claims.get(JwtUtil.CLAIM_TOKEN_VERSION, Integer.class);
+        if (tokenRevocationRegistry.isRevoked(tokenTenant, userId, version != null ? version : 0)) {
+            return null;
+        }
+
+        User.UserStatus status = User.UserStatus.valueOf(claims.get(JwtUtil.CLAIM_STATUS, String.class));
+        if (status != User.UserStatus.ACTIVE) {
+            return principalCache.get(claims.getSubject()).orElse(null);
+        }
+        User.UserRole role = User.UserRole.valueOf(claims.get(JwtUtil.CLAIM_ROLE, String.class));
+        return new AuthenticatedPrincipal(userId, claims.getSubject(), role, status, tokenTenant);
+    }
 }
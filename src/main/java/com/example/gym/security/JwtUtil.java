@@ -1,8 +1,10 @@
 package com.example.gym.security;
 
+import com.example.gym.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -18,45 +20,61 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}") // 1 día
     private long jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
+    // Key y parser se crean una sola vez al iniciar (el JwtParser es inmutable y thread-safe)
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    private void init() {
         // Decodifica el Base64 y crea la key segura
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
-    public String generateToken(String email, String role) {
+    // Claims propios: con ellos el filtro arma el principal sin leer la base
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_TENANT_ID = "tid";
+    public static final String CLAIM_STATUS = "st";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
-                .claim("role", role)
+                .setSubject(user.getEmail())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_TENANT_ID, user.getTenantId())
+                .claim(CLAIM_STATUS, user.getStatus().name())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion() != null ? user.getTokenVersion() : 0)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifica firma y expiración una sola vez y devuelve los claims del token.
+     *
+     * @throws JwtException si el token es inválido o expiró
+     * @throws IllegalArgumentException si el token está vacío
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return (String) claims.get("role");
+        return (String) parseClaims(token).get(CLAIM_ROLE);
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             // Token inválido - no loguear detalles en producción por seguridad
@@ -0,0 +1,92 @@
+package com.example.gym.security;
+
+import com.example.gym.model.User;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache acotado con TTL de usuarios autenticados, por (tenant, email).
+ * Evita el SELECT de users en cada request autenticado. Los cambios de estado, rol o contraseña
+ * invalidan la entrada del usuario; el TTL cubre cualquier cambio que no pase por esos caminos.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.principal-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CacheItem> cache = new ConcurrentHashMap<>();
+
+    public PrincipalCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Principal del email en el tenant actual, desde el cache o desde la base si venció.
+     */
+    public Optional<AuthenticatedPrincipal> get(String email) {
+        String cacheKey = cacheKey(TenantContext.getCurrentTenant(), email);
+        long now = Instant.now().getEpochSecond();
+        CacheItem item = cache.get(cacheKey);
+        if (item != null && item.expiresAt > now) {
+            return Optional.of(item.principal);
+        }
+
+        Optional<AuthenticatedPrincipal> principal = userRepository.findByEmail(email).map(AuthenticatedPrincipal::from);
+        if (principal.isPresent()) {
+            if (cache.size() >= maxSize) {
+                evict(now);
+            }
+            cache.put(cacheKey, new CacheItem(principal.get(), now + ttlSeconds));
+        } else {
+            cache.remove(cacheKey);
+        }
+        return principal;
+    }
+
+    /**
+     * Cambió el estado, rol o contraseña del usuario. Se invalida ya y de nuevo después del
+     * commit, para que un request concurrente no vuelva a cachear el valor anterior.
+     */
+    public void invalidate(User user) {
+        String cacheKey = cacheKey(user.getTenantId() != null ? user.getTenantId() : TenantContext.getCurrentTenant(),
+            user.getEmail());
+        cache.remove(cacheKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(cacheKey);
+                }
+            });
+        }
+    }
+
+    // Descarta las entradas vencidas; si el cache sigue lleno se vacía (se recarga a demanda)
+    private void evict(long now) {
+        cache.values().removeIf(item -> item.expiresAt <= now);
+        if (cache.size() >= maxSize) {
+            cache.clear();
+        }
+    }
+
+    private static String cacheKey(String tenantId, String email) {
+        return (tenantId != null ? tenantId : "") + "::" + email;
+    }
+
+    private record CacheItem(AuthenticatedPrincipal principal, long expiresAt) {}
+}
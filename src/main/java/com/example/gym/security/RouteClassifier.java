@@ -0,0 +1,126 @@
+package com.example.gym.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Clasificación de rutas compartida por los filtros (tenant, JWT y cache de body).
+ *
+ * La tabla se arma una sola vez: rutas exactas en un mapa y prefijos indexados por segmento
+ * ("/api/payments/"). Cada request se clasifica una vez y el resultado queda como atributo del
+ * request, así los demás filtros solo leen el atributo.
+ */
+public final class RouteClassifier {
+
+    public static final String ATTRIBUTE = RouteClassifier.class.getName() + ".policy";
+
+    /** Política de una ruta para los filtros. */
+    public enum RoutePolicy {
+        // Requiere JWT y usuario activo
+        AUTHENTICATED(true, false, true, false),
+        // Sin JWT (login, registro, recuperación de contraseña)
+        PUBLIC(false, false, true, false),
+        // Requiere JWT; también se permite a usuarios inactivos (perfil, planes, pagos)
+        INACTIVE_ALLOWED(true, true, true, false),
+        // Super-admin: requiere JWT pero no tenant
+        ADMIN(true, false, false, false),
+        // Webhook de Mercado Pago: sin JWT; el body crudo se guarda para validar la firma
+        WEBHOOK(false, false, true, true);
+
+        private final boolean requiresJwt;
+        private final boolean allowsInactive;
+        private final boolean requiresTenant;
+        private final boolean bufferBody;
+
+        RoutePolicy(boolean requiresJwt, boolean allowsInactive, boolean requiresTenant, boolean bufferBody) {
+            this.requiresJwt = requiresJwt;
+            this.allowsInactive = allowsInactive;
+            this.requiresTenant = requiresTenant;
+            this.bufferBody = bufferBody;
+        }
+
+        public boolean requiresJwt() {
+            return requiresJwt;
+        }
+
+        public boolean allowsInactive() {
+            return allowsInactive;
+        }
+
+        public boolean requiresTenant() {
+            return requiresTenant;
+        }
+
+        public boolean bufferBody() {
+            return bufferBody;
+        }
+    }
+
+    private static final Map<String, RoutePolicy> EXACT = new HashMap<>();
+    // Prefijos terminados en "/": se buscan por cada segmento de la ruta
+    private static final Map<String, RoutePolicy> PREFIXES = new HashMap<>();
+
+    static {
+        EXACT.put("/api/auth/register", RoutePolicy.PUBLIC);
+        EXACT.put("/api/auth/login", RoutePolicy.PUBLIC);
+        EXACT.put("/api/auth/forgot-password", RoutePolicy.PUBLIC);
+        EXACT.put("/api/auth/reset-password", RoutePolicy.PUBLIC);
+        EXACT.put("/api/auth/validate-reset-token", RoutePolicy.PUBLIC);
+
+        EXACT.put("/api/auth/me", RoutePolicy.INACTIVE_ALLOWED);
+        EXACT.put("/api/me", RoutePolicy.INACTIVE_ALLOWED);
+        EXACT.put("/api/membership-plans", RoutePolicy.INACTIVE_ALLOWED);
+        EXACT.put("/api/mp/preference", RoutePolicy.INACTIVE_ALLOWED);
+        PREFIXES.put("/api/membership-plans/", RoutePolicy.INACTIVE_ALLOWED);
+        PREFIXES.put("/api/payments/", RoutePolicy.INACTIVE_ALLOWED);
+
+        PREFIXES.put("/api/admin/", RoutePolicy.ADMIN);
+        EXACT.put("/actuator/metrics", RoutePolicy.ADMIN);
+        PREFIXES.put("/actuator/metrics/", RoutePolicy.ADMIN);
+
+        EXACT.put("/webhooks/mercadopago", RoutePolicy.WEBHOOK);
+    }
+
+    private RouteClassifier() {
+    }
+
+    /**
+     * Política de la ruta del request. Se calcula la primera vez y se guarda como atributo.
+     */
+    public static RoutePolicy classify(HttpServletRequest request) {
+        Object cached = request.getAttribute(ATTRIBUTE);
+        if (cached instanceof RoutePolicy policy) {
+            return policy;
+        }
+        RoutePolicy policy = classify(pathOf(request));
+        request.setAttribute(ATTRIBUTE, policy);
+        return policy;
+    }
+
+    static RoutePolicy classify(String path) {
+        RoutePolicy policy = EXACT.get(path);
+        if (policy != null) {
+            return policy;
+        }
+        // Del prefijo más largo al más corto: "/api/payments/x/y" prueba "/api/payments/x/", "/api/payments/", "/api/"
+        for (int slash = path.lastIndexOf('/'); slash > 0; slash = path.lastIndexOf('/', slash - 1)) {
+            policy = PREFIXES.get(path.substring(0, slash + 1));
+            if (policy != null) {
+                return policy;
+            }
+        }
+        return RoutePolicy.AUTHENTICATED;
+    }
+
+    // Ruta ya decodificada y normalizada por el contenedor, como la revisaba el filtro JWT original
+    // (getServletPath). Estos filtros corren antes del firewall de Spring Security, así que no se
+    // usa getRequestURI, que llega sin decodificar (%2F, ;jsessionid, "..").
+    private static String pathOf(HttpServletRequest request) {
+        String servletPath = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        String path = (servletPath != null ? servletPath : "") + (pathInfo != null ? pathInfo : "");
+        return path.isEmpty() ? "/" : path;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.gym.security;
+
+import com.example.gym.model.User;
+import com.example.gym.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versión vigente de los tokens de cada usuario, en memoria.
+ *
+ * Un JWT lleva la versión del usuario al momento del login (claim "ver"). Desactivar, cambiar el
+ * rol o resetear la contraseña incrementa User.tokenVersion y la registra acá, así que los tokens
+ * anteriores se rechazan en el próximo request sin consultar la base. Al iniciar se cargan las
+ * versiones guardadas, para que un reinicio no vuelva a habilitar tokens revocados, y cada pocos
+ * segundos se leen las revocaciones recientes (User.tokenRevokedAt), para que una revocación hecha
+ * en otra instancia también se aplique en esta.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+
+    // Margen hacia atrás de cada consulta: cubre transacciones que hicieron commit después de la
+    // consulta anterior y diferencias de reloj entre instancias
+    @Value("${security.token-revocation.overlap-seconds:60}")
+    private long overlapSeconds;
+
+    // tenant::userId -> versión mínima válida. Solo usuarios con alguna revocación.
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastPoll;
+
+    public TokenRevocationRegistry(UserRepository userRepository, PrincipalCache principalCache) {
+        this.userRepository = userRepository;
+        this.principalCache = principalCache;
+    }
+
+    // Antes de aceptar requests: un token revocado no debe pasar durante el arranque
+    @PostConstruct
+    void loadVersions() {
+        lastPoll = LocalDateTime.now();
+        for (UserRepository.TokenVersion row : userRepository.findRevokedTokenVersions()) {
+            register(row);
+        }
+        if (!versions.isEmpty()) {
+            logger.info("Registro de revocación de tokens: {} usuarios cargados", versions.size());
+        }
+    }
+
+    /** Aplica las revocaciones recientes, incluidas las hechas en otras instancias. */
+    @Scheduled(fixedDelayString = "${security.token-revocation.poll-ms:5000}",
+               initialDelayString = "${security.token-revocation.poll-ms:5000}")
+    public void pollChanges() {
+        LocalDateTime now = LocalDateTime.now();
+        for (UserRepository.TokenVersion row : userRepository.findTokenVersionsRevokedSince(lastPoll.minusSeconds(overlapSeconds))) {
+            register(row);
+        }
+        lastPoll = now;
+    }
+
+    /**
+     * Revoca los tokens emitidos hasta ahora para el usuario. Incrementa User.tokenVersion (el
+     * llamador guarda la entidad) y registra la nueva versión después del commit.
+     */
+    public void revoke(User user) {
+        int next = (user.getTokenVersion() != null ? user.getTokenVersion() : 0) + 1;
+        user.setTokenVersion(next);
+        user.setTokenRevokedAt(LocalDateTime.now());
+        String key = key(user.getTenantId(), user.getId());
+        Runnable register = () -> versions.merge(key, next, Math::max);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    register.run();
+                }
+            });
+        } else {
+            register.run();
+        }
+        principalCache.invalidate(user);
+    }
+
+    /** true si el token fue emitido con una versión anterior a la vigente. */
+    public boolean isRevoked(String tenantId, Long userId, int tokenVersion) {
+        Integer current = versions.get(key(tenantId, userId));
+        return current != null && tokenVersion < current;
+    }
+
+    private void register(UserRepository.TokenVersion row) {
+        if (row.getTokenVersion() != null) {
+            versions.merge(key(row.getTenantId(), row.getUserId()), row.getTokenVersion(), Math::max);
+        }
+    }
+
+    private static String key(String tenantId, Long userId) {
+        return (tenantId != null ? tenantId : "") + "::" + userId;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.gym.service;
+
+import com.example.gym.model.ClosedDate;
+import com.example.gym.model.Schedule;
+import com.example.gym.repository.ClosedDateRepository;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fechas cerradas (pausadas) por horario, guardadas en la tabla closed_dates.
+ */
+@Service
+public class ClosedDateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClosedDateService.class);
+
+    // Motivo de cancelación de las reservas afectadas por un cierre
+    public static final String CANCELLATION_REASON = "DATE_CLOSED";
+
+    private final ClosedDateRepository closedDateRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final ReservationRepository reservationRepository;
+    private final SeatAdmissionService seatAdmissionService;
+    private final SlotOccupancyService slotOccupancyService;
+    private final WaitlistService waitlistService;
+    private final WeekScheduleService weekScheduleService;
+
+    public ClosedDateService(ClosedDateRepository closedDateRepository,
+                             ScheduleRepository scheduleRepository,
+                             ReservationRepository reservationRepository,
+                             SeatAdmissionService seatAdmissionService,
+                             SlotOccupancyService slotOccupancyService,
+                             WaitlistService waitlistService,
+                             WeekScheduleService weekScheduleService) {
+        this.closedDateRepository = closedDateRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.reservationRepository = reservationRepository;
+        this.seatAdmissionService = seatAdmissionService;
+        this.slotOccupancyService = slotOccupancyService;
+        this.waitlistService = waitlistService;
+        this.weekScheduleService = weekScheduleService;
+    }
+
+    /** Resultado de un cierre: turnos cerrados, reservas canceladas y usuarios a notificar. */
+    public record ClosureResult(int closedSlots, int cancelledReservations, List<Long> affectedUserIds) {}
+
+    public boolean isClosed(Long scheduleId, LocalDate date) {
+        return closedDateRepository.isClosed(scheduleId, date);
+    }
+
+    /**
+     * Turnos cerrados dentro de un rango, agrupados por fecha (una sola consulta).
+     */
+    public Map<LocalDate, Set<Long>> closedSlotsBetween(LocalDate from, LocalDate to) {
+        Map<LocalDate, Set<Long>> closed = new HashMap<>();
+        for (ClosedDateRepository.ClosedSlot slot : closedDateRepository.findClosedSlotsBetween(from, to)) {
+            closed.computeIfAbsent(slot.getDate(), d -> new HashSet<>()).add(slot.getScheduleId());
+        }
+        return closed;
+    }
+
+    /**
+     * Cierra un horario en una fecha. No hace nada si ya estaba cerrado.
+     *
+     * @return true si se cerró ahora
+     */
+    @Transactional
+    public boolean close(Schedule schedule, LocalDate date, String reason) {
+        if (closedDateRepository.isClosed(schedule.getId(), date)) {
+            return false;
+        }
+        closedDateRepository.save(ClosedDate.builder()
+            .schedule(schedule)
+            .date(date)
+            .reason(reason)
+            .build());
+        weekScheduleService.invalidate();
+        return true;
+    }
+
+    /**
+     * Reabre un horario en una fecha.
+     *
+     * @return true si estaba cerrado
+     */
+    @Transactional
+    public boolean reopen(Long scheduleId, LocalDate date) {
+        boolean reopened = closedDateRepository.deleteByScheduleIdAndDate(scheduleId, date) > 0;
+        if (reopened) {
+            weekScheduleService.invalidate();
+        }
+        return reopened;
+    }
+
+    // Cierra todas las fechas de un rango (inclusive) para los horarios indicados, solo en los días
+    // que corresponden a cada horario. Las fechas ya cerradas se ignoran.
+    private List<ClosedDate> closeRange(List<Schedule> schedules, LocalDate from, LocalDate to, String reason) {
+        Map<LocalDate, Set<Long>> alreadyClosed = closedSlotsBetween(from, to);
+        List<ClosedDate> created = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            int dayOfWeek = day.getDayOfWeek().getValue() % 7; // 0=Domingo, 1=Lunes
+            Set<Long> closedThatDay = alreadyClosed.getOrDefault(day, Set.of());
+            for (Schedule schedule : schedules) {
+                if (schedule.getDayOfWeek() != dayOfWeek || closedThatDay.contains(schedule.getId())) {
+                    continue;
+                }
+                created.add(ClosedDate.builder()
+                    .schedule(schedule)
+                    .date(day)
+                    .reason(reason)
+                    .build());
+            }
+        }
+        return closedDateRepository.saveAll(created);
+    }
+
+    /**
+     * Cierra un rango de fechas para los horarios indicados y cancela sus reservas confirmadas.
+     * La cancelación es un solo UPDATE sobre reservations (más uno para contadores y otro para
+     * la lista de espera), sin importar cuántas reservas haya.
+     */
+    @Transactional
+    public ClosureResult closeSlots(List<Schedule> schedules, LocalDate from, LocalDate to, String reason) {
+        List<ClosedDate> created = closeRange(schedules, from, to, reason);
+        List<Long> scheduleIds = schedules.stream().map(Schedule::getId).toList();
+
+        // Los usuarios se leen antes del UPDATE, que deja las reservas como CANCELLED
+        List<Long> affectedUserIds = reservationRepository
+            .findConfirmedUserIdsByScheduleIdsAndDateRange(scheduleIds, from, to);
+        int cancelled = affectedUserIds.isEmpty() ? 0 : reservationRepository
+            .cancelConfirmedByScheduleIdsAndDateRange(scheduleIds, from, to, LocalDateTime.now(), CANCELLATION_REASON);
+
+        seatAdmissionService.slotsCleared(scheduleIds, from, to);
+        slotOccupancyService.slotsCleared(scheduleIds, from, to);
+        waitlistService.cancelForSlots(scheduleIds, from, to);
+        weekScheduleService.invalidate();
+
+        return new ClosureResult(created.size(), cancelled, affectedUserIds);
+    }
+
+    /**
+     * Reabre un rango de fechas para los horarios indicados. Las reservas canceladas por el cierre
+     * no se restauran.
+     *
+     * @return cantidad de turnos reabiertos
+     */
+    @Transactional
+    public int reopenSlots(Collection<Long> scheduleIds, LocalDate from, LocalDate to) {
+        int reopened = closedDateRepository.deleteInRange(scheduleIds, from, to);
+        if (reopened > 0) {
+            weekScheduleService.invalidate();
+        }
+        return reopened;
+    }
+
+    /**
+     * Migra las fechas del CSV legado Schedule.pausedDates a closed_dates y limpia la columna.
+     * Corre al iniciar y no hace nada si ya no quedan datos legados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrateLegacyPausedDates() {
+        List<Schedule> legacy = scheduleRepository.findByPausedDatesIsNotNull();
+        int migrated = 0;
+        for (Schedule schedule : legacy) {
+            Set<LocalDate> dates = new LinkedHashSet<>();
+            for (String token : schedule.getPausedDates().split(",")) {
+                String value = token.trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                try {
+                    dates.add(LocalDate.parse(value));
+                } catch (DateTimeParseException e) {
+                    logger.warn("Fecha pausada inválida '{}' en horario {}, se descarta", value, schedule.getId());
+                }
+            }
+            for (LocalDate date : dates) {
+                if (closedDateRepository.isClosed(schedule.getId(), date)) {
+                    continue;
+                }
+                ClosedDate closedDate = ClosedDate.builder()
+                    .schedule(schedule)
+                    .date(date)
+                    .reason("MIGRATED")
+                    .build();
+                // Sin TenantContext al iniciar: el tenant sale del horario
+                closedDate.setTenantId(schedule.getTenantId());
+                closedDateRepository.save(closedDate);
+                migrated++;
+            }
+            schedule.setPausedDates(null);
+            scheduleRepository.save(schedule);
+        }
+        if (migrated > 0) {
+            logger.info("Migradas {} fechas pausadas de {} horarios a closed_dates", migrated, legacy.size());
+        }
+    }
+}
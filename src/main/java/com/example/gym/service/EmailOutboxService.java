@@ -0,0 +1,249 @@
+package com.example.gym.service;
+
+import com.example.gym.model.OutgoingEmail;
+import com.example.gym.repository.OutgoingEmailRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox de emails: enqueue guarda el email en la transacción actual (sin tocar SMTP) y un job lo
+ * envía después del commit. Cada corrida toma un lote y lo manda en una sola conexión SMTP; los
+ * que fallan se reintentan con backoff exponencial hasta agotar los intentos. Un job aparte, más
+ * espaciado, libera los envíos abandonados y actualiza las métricas. Una vez por día se
+ * borran los emails terminados (el cuerpo lleva datos del socio y no se necesita una vez enviado).
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    private final OutgoingEmailRepository outgoingEmailRepository;
+    private final JavaMailSender mailSender;
+
+    @Value("${mail.from:noreply@sigmagym.com.ar}")
+    private String mailFrom;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    // Espera antes del segundo intento; se duplica en cada reintento hasta el máximo
+    @Value("${mail.outbox.backoff-seconds:60}")
+    private long backoffSeconds;
+
+    @Value("${mail.outbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    // Un email tomado por más de este tiempo se considera abandonado y vuelve a la cola
+    @Value("${mail.outbox.stale-seconds:600}")
+    private long staleSeconds;
+
+    // Días que se conservan los emails enviados y los descartados (estos, para poder revisarlos)
+    @Value("${mail.outbox.retention.sent-days:7}")
+    private int sentRetentionDays;
+
+    @Value("${mail.outbox.retention.failed-days:30}")
+    private int failedRetentionDays;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+
+    public EmailOutboxService(OutgoingEmailRepository outgoingEmailRepository,
+                              JavaMailSender mailSender,
+                              MeterRegistry meterRegistry) {
+        this.outgoingEmailRepository = outgoingEmailRepository;
+        this.mailSender = mailSender;
+        Gauge.builder("gym.mail.outbox.backlog", backlog, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("gym.mail.outbox.lag.seconds", lagSeconds, AtomicLong::get).register(meterRegistry);
+        this.sendTimer = Timer.builder("gym.mail.outbox.send").register(meterRegistry);
+        this.sent = Counter.builder("gym.mail.outbox.emails").tag("outcome", "sent").register(meterRegistry);
+        this.retried = Counter.builder("gym.mail.outbox.emails").tag("outcome", "retried").register(meterRegistry);
+        this.failed = Counter.builder("gym.mail.outbox.emails").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /** Encola un email HTML; se envía solo si la transacción actual hace commit. */
+    public OutgoingEmail enqueue(String recipient, String subject, String htmlBody) {
+        OutgoingEmail email = OutgoingEmail.builder()
+            .recipient(recipient)
+            .subject(subject)
+            .body(htmlBody)
+            .build();
+        return outgoingEmailRepository.save(email);
+    }
+
+    /** Envía un lote de emails pendientes en una sola sesión SMTP. */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-ms:5000}",
+               initialDelayString = "${mail.outbox.poll-ms:5000}")
+    public void dispatch() {
+        // Microsegundos: es lo que guarda la columna, y finish compara lockedAt con este valor
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> claimed = new ArrayList<>();
+        for (Long id : outgoingEmailRepository.findDueIds(now, PageRequest.of(0, batchSize))) {
+            if (outgoingEmailRepository.claim(id, now) > 0) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<OutgoingEmail> emails = outgoingEmailRepository.findAllById(claimed);
+        Map<MimeMessage, OutgoingEmail> messages = new IdentityHashMap<>();
+        for (OutgoingEmail email : emails) {
+            try {
+                messages.put(toMessage(email), email);
+            } catch (Exception e) {
+                // Email mal armado (ej. dirección inválida): no se reintenta
+                email.setStatus(OutgoingEmail.EmailStatus.FAILED);
+                email.setLastError(truncate(e));
+                record(email, now, e);
+            }
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        if (!messages.isEmpty()) {
+            long start = System.nanoTime();
+            try {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    // Sin detalle por mensaje (ej. no se pudo conectar): falló todo el lote
+                    failures = new IdentityHashMap<>();
+                    for (MimeMessage message : messages.keySet()) {
+                        failures.put(message, e);
+                    }
+                }
+            } catch (Exception e) {
+                failures = new IdentityHashMap<>();
+                for (MimeMessage message : messages.keySet()) {
+                    failures.put(message, e);
+                }
+            } finally {
+                sendTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            }
+        }
+
+        LocalDateTime done = LocalDateTime.now();
+        for (Map.Entry<MimeMessage, OutgoingEmail> entry : messages.entrySet()) {
+            OutgoingEmail email = entry.getValue();
+            email.setAttempts(email.getAttempts() + 1);
+            Exception error = failures.get(entry.getKey());
+            if (error == null) {
+                email.setStatus(OutgoingEmail.EmailStatus.SENT);
+                email.setSentAt(done);
+                email.setLastError(null);
+            } else if (email.getAttempts() >= maxAttempts) {
+                email.setStatus(OutgoingEmail.EmailStatus.FAILED);
+                email.setLastError(truncate(error));
+            } else {
+                email.setStatus(OutgoingEmail.EmailStatus.PENDING);
+                email.setNextAttemptAt(done.plus(backoff(email.getAttempts())));
+                email.setLastError(truncate(error));
+            }
+            record(email, now, error);
+        }
+    }
+
+    /** Devuelve a la cola los emails abandonados y actualiza las métricas de la cola. */
+    @Scheduled(fixedDelayString = "${mail.outbox.maintenance-ms:30000}",
+               initialDelayString = "${mail.outbox.maintenance-ms:30000}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        outgoingEmailRepository.releaseStale(now.minusSeconds(staleSeconds));
+        refreshMetrics(now);
+    }
+
+    /** Borra los emails enviados y descartados que superaron su retención. */
+    @Scheduled(cron = "${mail.outbox.retention.cron:0 45 3 * * *}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int sentDeleted = outgoingEmailRepository.deleteByStatusCreatedBefore(
+            OutgoingEmail.EmailStatus.SENT, now.minusDays(sentRetentionDays));
+        int failedDeleted = outgoingEmailRepository.deleteByStatusCreatedBefore(
+            OutgoingEmail.EmailStatus.FAILED, now.minusDays(failedRetentionDays));
+        if (sentDeleted + failedDeleted > 0) {
+            logger.info("[Mail] Limpieza: {} emails enviados y {} descartados borrados", sentDeleted, failedDeleted);
+        }
+    }
+
+    // ===== Helpers =====
+
+    private MimeMessage toMessage(OutgoingEmail email) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(new InternetAddress(mailFrom));
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+        return message;
+    }
+
+    // No se usa save(): si el claim se liberó por abandonado, pisaría el resultado de la otra corrida
+    private void record(OutgoingEmail email, LocalDateTime claimedAt, Exception error) {
+        int updated = outgoingEmailRepository.finish(email.getId(), claimedAt, email.getStatus(), email.getAttempts(),
+            email.getNextAttemptAt(), email.getSentAt(), email.getLastError());
+        if (updated == 0) {
+            logger.warn("[Mail] Email {} a {} reclamado por otra corrida; se descarta este resultado",
+                email.getId(), email.getRecipient());
+            return;
+        }
+        switch (email.getStatus()) {
+            case SENT -> sent.increment();
+            case FAILED -> {
+                failed.increment();
+                logger.error("[Mail] Email {} a {} descartado tras {} intentos: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error.getMessage());
+            }
+            default -> {
+                retried.increment();
+                logger.warn("[Mail] Email {} a {} falló el intento {}: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error.getMessage());
+            }
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long seconds = backoffSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+    }
+
+    private static String truncate(Exception error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private void refreshMetrics(LocalDateTime now) {
+        backlog.set(outgoingEmailRepository.countPending());
+        LocalDateTime oldest = outgoingEmailRepository.findOldestPendingCreatedAt();
+        lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, now).getSeconds()) : 0);
+    }
+}
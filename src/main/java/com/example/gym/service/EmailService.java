@@ -12,9 +12,11 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutboxService;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, EmailOutboxService emailOutboxService) {
         this.mailSender = mailSender;
+        this.emailOutboxService = emailOutboxService;
     }
 
     @Value("${mail.from:noreply@sigmagym.com.ar}")
@@ -67,22 +69,19 @@ public class EmailService {
         } catch (Exception ignored) {}
     }
 
-    public void sendPaymentReceipt(String toEmail, String memberName,
-                                   String planName, double amount,
-                                   String method, String startDate, String endDate,
-                                   String mpPaymentId) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setFrom(new InternetAddress(mailFrom));
-            helper.setTo(toEmail);
-            helper.setSubject("Comprobante de pago - Sigma Gym");
-            helper.setText(buildReceiptHtml(memberName, planName, amount, method,
-                                            startDate, endDate, mpPaymentId), true);
-            mailSender.send(message);
-        } catch (Exception e) {
-            // No interrumpir el flujo de pago si el mail falla
+    /**
+     * Encola el comprobante de pago en el outbox: se guarda en la transacción del pago y se envía
+     * después del commit, así la transacción no queda abierta durante el envío SMTP.
+     */
+    public void queuePaymentReceipt(String toEmail, String memberName,
+                                    String planName, double amount,
+                                    String method, String startDate, String endDate,
+                                    String mpPaymentId) {
+        if (toEmail == null || toEmail.isBlank()) {
+            return;
         }
+        emailOutboxService.enqueue(toEmail, "Comprobante de pago - Sigma Gym",
+            buildReceiptHtml(memberName, planName, amount, method, startDate, endDate, mpPaymentId));
     }
 
     private String buildReceiptHtml(String memberName, String planName, double amount,
@@ -1,14 +1,18 @@
 package com.example.gym.service;
 
 import com.example.gym.tenant.TenantContext;
+import com.example.gym.tenant.TenantSnapshotCache;
 import com.example.gym.tenant.TenantSwitch;
 import com.example.gym.tenant.TenantSwitchRepository;
+import com.example.gym.tenant.TenantSwitchService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -21,9 +25,23 @@ public class GoogleSheetsCredentialService {
     private static final String KEY_CONNECTED_AT     = "GS_CONNECTED_AT";
     private static final String KEY_ENABLED_FEATURES = "GS_ENABLED_FEATURES";
 
+    private static final List<String> CREDENTIAL_KEYS = List.of(
+            KEY_ACCESS_TOKEN, KEY_REFRESH_TOKEN, KEY_PAYMENTS_SHEET,
+            KEY_PLANS_SHEET, KEY_CONNECTED_AT, KEY_ENABLED_FEATURES);
+
     @Autowired
     private TenantSwitchRepository switchRepository;
 
+    @Autowired
+    private TenantSwitchService switchService;
+
+    // TTL corto: un token renovado o desconectado en otra instancia deja de usarse enseguida
+    @Value("${google.credentials.cache-seconds:30}")
+    private long cacheSeconds;
+
+    // tenant -> credenciales; se descarta en cada upsert/clear
+    private final TenantSnapshotCache<Map<String, String>> credentials = new TenantSnapshotCache<>(this::loadCredentials);
+
     // --- Getters ---
 
     public String getAccessToken() {
@@ -120,10 +138,24 @@ public class GoogleSheetsCredentialService {
     }
 
     private String resolveForTenant(String tenantId, String key, String fallback) {
-        return switchRepository.findByTenantIdAndKey(tenantId, key)
-                .map(TenantSwitch::getPayload)
-                .filter(p -> p != null && !p.isBlank())
-                .orElse(fallback);
+        if (tenantId == null) return fallback;
+        return credentials.get(tenantId, cacheSeconds).getOrDefault(key, fallback);
+    }
+
+    // Snapshot de las credenciales del tenant: una sola consulta, solo valores no vacíos
+    private Map<String, String> loadCredentials(String tenantId) {
+        Map<String, String> values = new HashMap<>();
+        for (TenantSwitch sw : switchRepository.findByTenantIdAndKeyIn(tenantId, CREDENTIAL_KEYS)) {
+            if (sw.getPayload() != null && !sw.getPayload().isBlank()) {
+                values.put(sw.getKey(), sw.getPayload());
+            }
+        }
+        return Map.copyOf(values);
+    }
+
+    private void invalidate(String tenantId) {
+        credentials.invalidate(tenantId);
+        switchService.invalidate(tenantId);
     }
 
     private void upsert(String tenantId, String key, String value) {
@@ -137,6 +169,7 @@ public class GoogleSheetsCredentialService {
         sw.setPayload(value.trim());
         sw.setEnabled(true);
         switchRepository.saveAndFlush(sw);
+        invalidate(tenantId);
     }
 
     private void clear(String tenantId, String key) {
@@ -144,6 +177,7 @@ public class GoogleSheetsCredentialService {
             sw.setPayload("");
             sw.setEnabled(false);
             switchRepository.save(sw);
+            invalidate(tenantId);
         });
     }
 
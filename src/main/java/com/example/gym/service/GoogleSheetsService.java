@@ -17,7 +17,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -55,7 +54,9 @@ public class GoogleSheetsService {
     @Autowired
     private UserRepository userRepository;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Autowired
+    private OutboundHttpClient outboundHttpClient;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     // ==================== TOKEN MANAGEMENT ====================
@@ -87,7 +88,7 @@ public class GoogleSheetsService {
                 .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
         if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
             Map<String, Object> json = mapper.readValue(resp.body(), new TypeReference<>() {});
             String newAccessToken = String.valueOf(json.get("access_token"));
@@ -114,7 +115,7 @@ public class GoogleSheetsService {
                 .GET()
                 .build();
 
-        HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
 
         if (resp.statusCode() == 401) {
             token = refreshAccessToken(tenantId);
@@ -124,7 +125,7 @@ public class GoogleSheetsService {
                     .header("Accept", "application/json")
                     .GET()
                     .build();
-            resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
         }
 
         if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
@@ -157,7 +158,7 @@ public class GoogleSheetsService {
                 .method("PUT", HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
                 .build();
 
-        HttpResponse<String> resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        HttpResponse<String> resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
 
         if (resp.statusCode() == 401) {
             token = refreshAccessToken(tenantId);
@@ -167,7 +168,7 @@ public class GoogleSheetsService {
                     .header("Content-Type", "application/json")
                     .method("PUT", HttpRequest.BodyPublishers.ofString(jsonBody, StandardCharsets.UTF_8))
                     .build();
-            resp = httpClient.send(req, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            resp = outboundHttpClient.send(OutboundHttpClient.GOOGLE, req);
         }
 
         if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
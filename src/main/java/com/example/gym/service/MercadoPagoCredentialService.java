@@ -1,13 +1,17 @@
 package com.example.gym.service;
 
 import com.example.gym.tenant.TenantContext;
+import com.example.gym.tenant.TenantSnapshotCache;
 import com.example.gym.tenant.TenantSwitch;
 import com.example.gym.tenant.TenantSwitchRepository;
+import com.example.gym.tenant.TenantSwitchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -20,6 +24,10 @@ public class MercadoPagoCredentialService {
     private static final String KEY_USER_ID           = "MP_USER_ID";
     private static final String KEY_TOKEN_EXPIRES_AT  = "MP_TOKEN_EXPIRES_AT";
 
+    private static final List<String> CREDENTIAL_KEYS = List.of(
+            KEY_ACCESS_TOKEN, KEY_WEBHOOK_SECRET, KEY_COMMISSION_PERCENT,
+            KEY_REFRESH_TOKEN, KEY_USER_ID, KEY_TOKEN_EXPIRES_AT);
+
     /** Public key de GESTIGYM (el integrador). Nunca cambia por tenant. */
     @Value("${mercadopago.integrator-public-key:}")
     private String integratorPublicKey;
@@ -36,6 +44,16 @@ public class MercadoPagoCredentialService {
     @Autowired
     private TenantSwitchRepository switchRepository;
 
+    @Autowired
+    private TenantSwitchService switchService;
+
+    // TTL corto: un token renovado o desconectado en otra instancia deja de usarse enseguida
+    @Value("${mercadopago.credentials.cache-seconds:30}")
+    private long cacheSeconds;
+
+    // tenant -> credenciales; se descarta en cada upsert/clear
+    private final TenantSnapshotCache<Map<String, String>> credentials = new TenantSnapshotCache<>(this::loadCredentials);
+
     /**
      * Public key de GESTIGYM (el integrador/plataforma).
      * Se usa en el frontend para inicializar el SDK de MP.
@@ -145,10 +163,24 @@ public class MercadoPagoCredentialService {
     }
 
     private String resolveForTenant(String tenantId, String key, String fallback) {
-        return switchRepository.findByTenantIdAndKey(tenantId, key)
-                .map(TenantSwitch::getPayload)
-                .filter(p -> p != null && !p.isBlank())
-                .orElse(fallback);
+        if (tenantId == null) return fallback;
+        return credentials.get(tenantId, cacheSeconds).getOrDefault(key, fallback);
+    }
+
+    // Snapshot de las credenciales del tenant: una sola consulta, solo valores no vacíos
+    private Map<String, String> loadCredentials(String tenantId) {
+        Map<String, String> values = new HashMap<>();
+        for (TenantSwitch sw : switchRepository.findByTenantIdAndKeyIn(tenantId, CREDENTIAL_KEYS)) {
+            if (sw.getPayload() != null && !sw.getPayload().isBlank()) {
+                values.put(sw.getKey(), sw.getPayload());
+            }
+        }
+        return Map.copyOf(values);
+    }
+
+    private void invalidate(String tenantId) {
+        credentials.invalidate(tenantId);
+        switchService.invalidate(tenantId);
     }
 
     private void upsert(String tenantId, String key, String value) {
@@ -162,6 +194,7 @@ public class MercadoPagoCredentialService {
         sw.setPayload(value.trim());
         sw.setEnabled(true);
         switchRepository.saveAndFlush(sw);
+        invalidate(tenantId);
     }
 
     private void clear(String tenantId, String key) {
@@ -169,6 +202,7 @@ public class MercadoPagoCredentialService {
             sw.setPayload("");
             sw.setEnabled(false);
             switchRepository.save(sw);
+            invalidate(tenantId);
         });
     }
 
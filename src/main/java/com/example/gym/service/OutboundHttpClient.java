@@ -0,0 +1,108 @@
+package com.example.gym.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP compartido para las integraciones externas (Mercado Pago, Google).
+ *
+ * Un solo HttpClient (HTTP/2 con fallback a 1.1) reutiliza las conexiones abiertas, así que cada
+ * llamada no paga un handshake TLS nuevo. Aplica timeouts de conexión y de respuesta, limita las
+ * llamadas simultáneas por host para que un proveedor lento no acapare los hilos de la aplicación,
+ * y registra la latencia de cada llamada en la métrica gym.outbound.requests (Actuator /metrics).
+ */
+@Component
+public class OutboundHttpClient {
+
+    public static final String MERCADOPAGO = "mercadopago";
+    public static final String GOOGLE = "google";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${outbound-http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${outbound-http.request-timeout-ms:15000}")
+    private long requestTimeoutMs;
+
+    @Value("${outbound-http.max-concurrent-per-host:20}")
+    private int maxConcurrentPerHost;
+
+    // Espera máxima por un lugar libre antes de rechazar la llamada
+    @Value("${outbound-http.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    private HttpClient client;
+
+    // host -> llamadas en curso permitidas
+    private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+
+    public OutboundHttpClient(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+            // Sin seguir redirects, igual que HttpClient.newHttpClient() (pagos y canje de tokens OAuth)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    /**
+     * Envía el request y devuelve el body como texto UTF-8. Si el request no define timeout se usa
+     * el configurado; si el host ya tiene el máximo de llamadas en curso se espera un lugar y, si no
+     * se libera a tiempo, se lanza IOException.
+     *
+     * @param integration nombre de la integración para las métricas (MERCADOPAGO, GOOGLE)
+     */
+    public HttpResponse<String> send(String integration, HttpRequest request) throws IOException, InterruptedException {
+        if (request.timeout().isEmpty()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true)
+                .timeout(Duration.ofMillis(requestTimeoutMs))
+                .build();
+        }
+        String host = request.uri().getHost();
+        Semaphore limit = hostLimits.computeIfAbsent(host, h -> new Semaphore(maxConcurrentPerHost));
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        if (!limit.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            record(integration, request, host, "REJECTED", start);
+            throw new IOException("Demasiadas llamadas simultáneas a " + host);
+        }
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            outcome = String.valueOf(response.statusCode());
+            return response;
+        } finally {
+            limit.release();
+            record(integration, request, host, outcome, start);
+        }
+    }
+
+    private void record(String integration, HttpRequest request, String host, String outcome, long start) {
+        Timer.builder("gym.outbound.requests")
+            .tag("integration", integration)
+            .tag("host", host)
+            .tag("method", request.method())
+            .tag("status", outcome)
+            .register(meterRegistry)
+            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
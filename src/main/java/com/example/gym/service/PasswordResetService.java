@@ -4,6 +4,7 @@ import com.example.gym.model.PasswordResetToken;
 import com.example.gym.model.User;
 import com.example.gym.repository.PasswordResetTokenRepository;
 import com.example.gym.repository.UserRepository;
+import com.example.gym.security.TokenRevocationRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,9 @@ public class PasswordResetService {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
     
     // Generar token de recuperación
     @Transactional
@@ -74,6 +78,7 @@ public class PasswordResetService {
         
         // Actualizar contraseña
         user.setPassword(passwordEncoder.encode(newPassword));
+        tokenRevocationRegistry.revoke(user);
         userRepository.save(user);
         
         // Marcar token como usado
@@ -17,9 +17,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -27,6 +32,9 @@ public class PaymentService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
 
+    // Pagos de MP ya registrados que se recuerdan en memoria (los más recientes)
+    private static final int RECENT_PAYMENTS = 10_000;
+
     private final UserRepository userRepository;
     private final MembershipPlanRepository planRepository;
     private final SubscriptionRepository subscriptionRepository;
@@ -36,14 +44,46 @@ public class PaymentService {
     @PersistenceContext
     private EntityManager entityManager;
 
+    // MP reenvía la misma notificación varias veces: los reintentos se descartan sin ir a la base
+    private final Set<String> recentPayments = Collections.synchronizedSet(Collections.newSetFromMap(
+        new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_PAYMENTS;
+            }
+        }));
+
+    /**
+     * true si el pago de MP ya activó una suscripción. Primero se consulta la memoria y, si no
+     * está, el índice único de payment_records.mp_payment_id.
+     */
+    public boolean isPaymentProcessed(String mpPaymentId) {
+        if (mpPaymentId == null || mpPaymentId.isBlank()) {
+            return false;
+        }
+        if (recentPayments.contains(mpPaymentId)) {
+            return true;
+        }
+        if (paymentRecordRepository.existsByMpPaymentId(mpPaymentId)) {
+            recentPayments.add(mpPaymentId);
+            return true;
+        }
+        return false;
+    }
+
     /**
-     * Activa la suscripción del usuario tras un pago aprobado por MP.
+     * Activa la suscripción del usuario tras un pago aprobado por MP. Es idempotente: un pago ya
+     * registrado no vuelve a cancelar/crear suscripciones ni a enviar el comprobante.
      *
      * @param externalReference formato: "tenantId:userId:planId"
      * @param mpPaymentId       ID del pago en MP
      */
     @Transactional
     public void activateSubscription(String externalReference, String mpPaymentId) {
+        if (isPaymentProcessed(mpPaymentId)) {
+            log.info("[Payment] Pago {} ya procesado — se ignora la notificación repetida.", mpPaymentId);
+            return;
+        }
         if (externalReference == null || externalReference.isBlank()) {
             log.warn("[Payment] Pago {} sin external_reference — no se activa ninguna suscripción.", mpPaymentId);
             return;
@@ -81,6 +121,21 @@ public class PaymentService {
                 return;
             }
 
+            // Guardar historial de pago primero: el índice único sobre mp_payment_id frena una entrega
+            // concurrente del mismo pago antes de tocar suscripciones o enviar el email
+            PaymentRecord record = PaymentRecord.builder()
+                    .user(user)
+                    .plan(plan)
+                    .planNameSnapshot(plan.getName())
+                    .planPriceSnapshot(plan.getPrice())
+                    .amount(plan.getPrice())
+                    .method(PaymentRecord.PaymentMethod.MP)
+                    .status(PaymentRecord.PaymentStatus.APPROVED)
+                    .mpPaymentId(mpPaymentId)
+                    .build();
+            paymentRecordRepository.saveAndFlush(record);
+            rememberPayment(mpPaymentId);
+
             // Cancelar suscripciones activas anteriores
             cancelActiveSubscriptions(user);
 
@@ -98,26 +153,13 @@ public class PaymentService {
                     .build();
             subscriptionRepository.save(sub);
 
-            // Guardar historial de pago
-            PaymentRecord record = PaymentRecord.builder()
-                    .user(user)
-                    .plan(plan)
-                    .planNameSnapshot(plan.getName())
-                    .planPriceSnapshot(plan.getPrice())
-                    .amount(plan.getPrice())
-                    .method(PaymentRecord.PaymentMethod.MP)
-                    .status(PaymentRecord.PaymentStatus.APPROVED)
-                    .mpPaymentId(mpPaymentId)
-                    .build();
-            paymentRecordRepository.save(record);
-
             log.info("[Payment] Suscripción activada — usuario={} plan='{}' hasta={} (pago {})",
                     userId, plan.getName(), sub.getEndDate(), mpPaymentId);
 
-            // Enviar comprobante por email
+            // Comprobante por email (outbox: se envía después del commit)
             String memberName = (user.getFirstName() != null ? user.getFirstName() : "") +
                                 (user.getLastName()  != null ? " " + user.getLastName() : "");
-            emailService.sendPaymentReceipt(
+            emailService.queuePaymentReceipt(
                 user.getEmail(), memberName.trim(),
                 plan.getName(), plan.getPrice(),
                 "MP", sub.getStartDate().toString(), sub.getEndDate().toString(),
@@ -185,7 +227,7 @@ public class PaymentService {
 
         String memberName = (user.getFirstName() != null ? user.getFirstName() : "") +
                             (user.getLastName()  != null ? " " + user.getLastName() : "");
-        emailService.sendPaymentReceipt(
+        emailService.queuePaymentReceipt(
             user.getEmail(), memberName.trim(),
             plan.getName(), plan.getPrice(),
             resolvedMethod.name(), sub.getStartDate().toString(), sub.getEndDate().toString(),
@@ -199,13 +241,24 @@ public class PaymentService {
      * Cancela todas las suscripciones activas de un usuario.
      */
     public void cancelActiveSubscriptions(User user) {
-        List<Subscription> existing = subscriptionRepository.findByUser(user);
-        existing.stream()
-                .filter(s -> s.getStatus() == Subscription.Status.ACTIVE)
-                .forEach(s -> {
-                    s.setStatus(Subscription.Status.CANCELED);
-                    subscriptionRepository.save(s);
-                });
+        subscriptionRepository.cancelActiveByUserId(user.getId());
+    }
+
+    // Se recuerda después del commit, para no descartar reintentos de un pago que terminó en rollback
+    private void rememberPayment(String mpPaymentId) {
+        if (mpPaymentId == null || mpPaymentId.isBlank()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentPayments.add(mpPaymentId);
+                }
+            });
+        } else {
+            recentPayments.add(mpPaymentId);
+        }
     }
 
     private void enableTenantFilter(String tenantId) {
@@ -0,0 +1,178 @@
+package com.example.gym.service;
+
+import com.example.gym.tenant.TenantContext;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Estado de los pagos de Mercado Pago (GET /v1/payments/{id}) en memoria.
+ *
+ * Lo usan el verify que el frontend consulta en loop después del checkout y el worker del
+ * webhook. Los estados finales (approved, rejected, ...) se guardan por mucho tiempo y los demás
+ * unos segundos. Si varios requests piden el mismo pago a la vez, solo uno llama a MP y el resto
+ * espera esa respuesta.
+ */
+@Component
+public class PaymentStatusCache {
+
+    // Estados en los que un pago ya no cambia (salvo devoluciones, que no afectan la activación)
+    private static final Set<String> TERMINAL_STATUSES = Set.of(
+        "approved", "rejected", "cancelled", "refunded", "charged_back");
+
+    private final MercadoPagoCredentialService mpCredentials;
+    private final OutboundHttpClient outboundHttpClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${mercadopago.payment-cache.pending-seconds:5}")
+    private long pendingSeconds;
+
+    @Value("${mercadopago.payment-cache.terminal-seconds:86400}")
+    private long terminalSeconds;
+
+    @Value("${mercadopago.payment-cache.max-size:10000}")
+    private int maxSize;
+
+    // tenant::paymentId -> pago
+    private final Map<String, CacheItem> cache = new ConcurrentHashMap<>();
+
+    // tenant::paymentId -> consulta en curso a MP
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    public PaymentStatusCache(MercadoPagoCredentialService mpCredentials, OutboundHttpClient outboundHttpClient) {
+        this.mpCredentials = mpCredentials;
+        this.outboundHttpClient = outboundHttpClient;
+    }
+
+    /** Pago del tenant actual; usa el cache si el valor sigue vigente. */
+    public Map<String, Object> get(String paymentId) throws IOException, InterruptedException {
+        return lookup(paymentId, false);
+    }
+
+    /**
+     * Pago del tenant actual tras una notificación de MP: un estado no final cacheado puede haber
+     * cambiado, así que se vuelve a consultar. Un estado final se toma del cache.
+     */
+    public Map<String, Object> refresh(String paymentId) throws IOException, InterruptedException {
+        return lookup(paymentId, true);
+    }
+
+    /** Guarda un pago que ya se obtuvo de MP por otro camino (ej. respuesta al crear el pago). */
+    public void put(String paymentId, Map<String, Object> payment) {
+        store(cacheKey(paymentId), payment);
+    }
+
+    // ===== Helpers =====
+
+    private Map<String, Object> lookup(String paymentId, boolean fresh) throws IOException, InterruptedException {
+        String key = cacheKey(paymentId);
+        CacheItem item = cache.get(key);
+        if (item != null && item.expiresAt > System.currentTimeMillis() && (item.terminal || !fresh)) {
+            return item.payment;
+        }
+
+        CompletableFuture<Map<String, Object>> mine = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            Map<String, Object> payment = fetch(paymentId);
+            store(key, payment);
+            mine.complete(payment);
+            return payment;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Map<String, Object> fetch(String paymentId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(URI.create("https://api.mercadopago.com/v1/payments/" + paymentId))
+            .header("Authorization", "Bearer " + mpCredentials.getAccessToken())
+            .GET()
+            .build();
+        HttpResponse<String> response = outboundHttpClient.send(OutboundHttpClient.MERCADOPAGO, request);
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new LookupException(response.statusCode());
+        }
+        return mapper.readValue(response.body(), new TypeReference<Map<String, Object>>() {});
+    }
+
+    private void store(String key, Map<String, Object> payment) {
+        long now = System.currentTimeMillis();
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+        boolean terminal = TERMINAL_STATUSES.contains(String.valueOf(payment.get("status")).toLowerCase());
+        long ttlMillis = (terminal ? terminalSeconds : pendingSeconds) * 1000;
+        // HashMap admite los valores null que devuelve MP (ej. status_detail)
+        Map<String, Object> copy = Collections.unmodifiableMap(new HashMap<>(payment));
+        cache.put(key, new CacheItem(copy, terminal, now + ttlMillis));
+    }
+
+    // Descarta las entradas vencidas; si el cache sigue lleno se vacía (se recarga a demanda)
+    private void evict(long now) {
+        cache.values().removeIf(item -> item.expiresAt <= now);
+        if (cache.size() >= maxSize) {
+            cache.clear();
+        }
+    }
+
+    // Quien esperaba recibe el mismo resultado (o el mismo error) que la consulta en curso
+    private static Map<String, Object> await(CompletableFuture<Map<String, Object>> running)
+            throws IOException, InterruptedException {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof InterruptedException interrupted) {
+                throw interrupted;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static String cacheKey(String paymentId) {
+        String tenantId = TenantContext.getCurrentTenant();
+        return (tenantId != null ? tenantId : "") + "::" + paymentId;
+    }
+
+    private record CacheItem(Map<String, Object> payment, boolean terminal, long expiresAt) {}
+
+    /** MP respondió con un status HTTP de error al consultar el pago. */
+    public static class LookupException extends IOException {
+        private final int statusCode;
+
+        public LookupException(int statusCode) {
+            super("MP respondió " + statusCode + " al consultar el pago");
+            this.statusCode = statusCode;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gym.service;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.repository.ReservationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Efectos comunes de cancelar reservas confirmadas: liberar cupos, actualizar la ocupación
+ * en memoria y promover la lista de espera de los turnos afectados.
+ * Lo usan la cancelación manual, la política de inasistencias y la desactivación de usuarios.
+ */
+@Service
+public class ReservationCancellationService {
+
+    private final ReservationRepository reservationRepository;
+    private final SeatAdmissionService seatAdmissionService;
+    private final SlotOccupancyService slotOccupancyService;
+    private final WaitlistService waitlistService;
+
+    public ReservationCancellationService(ReservationRepository reservationRepository,
+                                          SeatAdmissionService seatAdmissionService,
+                                          SlotOccupancyService slotOccupancyService,
+                                          WaitlistService waitlistService) {
+        this.reservationRepository = reservationRepository;
+        this.seatAdmissionService = seatAdmissionService;
+        this.slotOccupancyService = slotOccupancyService;
+        this.waitlistService = waitlistService;
+    }
+
+    /**
+     * Cancela reservas confirmadas y aplica los efectos sobre cupos y lista de espera.
+     */
+    @Transactional
+    public void cancelAll(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : reservations) {
+            reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
+            reservation.setCancelledAt(now);
+        }
+        reservationRepository.saveAll(reservations);
+        afterCancelled(reservations);
+    }
+
+    /**
+     * Efectos de reservas que ya quedaron canceladas (el llamador guardó el cambio de estado).
+     */
+    @Transactional
+    public void afterCancelled(Collection<Reservation> cancelled) {
+        seatAdmissionService.seatsReleased(cancelled);
+        slotOccupancyService.reservationsCancelled(cancelled);
+        waitlistService.promoteForCancelled(cancelled);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.gym.service;
 import com.example.gym.model.User;
 import com.example.gym.model.Role;
 import com.example.gym.repository.UserRepository;
+import com.example.gym.security.TokenRevocationRegistry;
 // import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -11,9 +12,11 @@ import java.util.HashSet;
 @Service
 public class RoleService {
     private final UserRepository userRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
-    public RoleService(UserRepository userRepository) {
+    public RoleService(UserRepository userRepository, TokenRevocationRegistry tokenRevocationRegistry) {
         this.userRepository = userRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     // Asigna MEMBER por defecto a un usuario nuevo
@@ -27,6 +30,7 @@ public class RoleService {
     // OWNER asigna TRAINER a otro usuario (la verificación de OWNER se hace en el controlador)
     public void assignTrainer(User trainerCandidate) {
         trainerCandidate.setRole(User.UserRole.TRAINER);
+        tokenRevocationRegistry.revoke(trainerCandidate);
         userRepository.save(trainerCandidate);
     }
 }
@@ -1,7 +1,9 @@
 package com.example.gym.service;
 
 import com.example.gym.model.Schedule;
+import com.example.gym.repository.ClosedDateRepository;
 import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.WaitlistEntryRepository;
 import com.example.gym.tenant.FeatureFlagService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,11 +18,21 @@ import java.util.List;
 public class ScheduleService {
 
     private final ScheduleRepository scheduleRepository;
+    private final ClosedDateRepository closedDateRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
     private final FeatureFlagService featureFlagService;
+    private final ClosedDateService closedDateService;
+    private final WeekScheduleService weekScheduleService;
 
-    public ScheduleService(ScheduleRepository scheduleRepository, FeatureFlagService featureFlagService) {
+    public ScheduleService(ScheduleRepository scheduleRepository, ClosedDateRepository closedDateRepository,
+                           WaitlistEntryRepository waitlistEntryRepository, FeatureFlagService featureFlagService,
+                           ClosedDateService closedDateService, WeekScheduleService weekScheduleService) {
         this.scheduleRepository = scheduleRepository;
+        this.closedDateRepository = closedDateRepository;
+        this.waitlistEntryRepository = waitlistEntryRepository;
         this.featureFlagService = featureFlagService;
+        this.closedDateService = closedDateService;
+        this.weekScheduleService = weekScheduleService;
     }
 
     /**
@@ -51,18 +63,7 @@ public class ScheduleService {
         );
 
         Schedule schedule = getScheduleById(scheduleId);
-
-        // Obtener fechas pausadas actuales
-        String pausedDates = schedule.getPausedDates();
-        String dateStr = date.toString(); // YYYY-MM-DD
-
-        if (pausedDates == null || pausedDates.isBlank()) {
-            schedule.setPausedDates(dateStr);
-        } else if (!pausedDates.contains(dateStr)) {
-            schedule.setPausedDates(pausedDates + "," + dateStr);
-        }
-
-        scheduleRepository.save(schedule);
+        closedDateService.close(schedule, date, null);
     }
 
     /**
@@ -77,16 +78,7 @@ public class ScheduleService {
         );
 
         Schedule schedule = getScheduleById(scheduleId);
-        String pausedDates = schedule.getPausedDates();
-
-        if (pausedDates != null && !pausedDates.isBlank()) {
-            String dateStr = date.toString();
-            String updated = pausedDates.replace(dateStr, "")
-                .replaceAll(",,+", ",")
-                .replaceAll("^,|,$", "");
-            schedule.setPausedDates(updated.isBlank() ? null : updated);
-            scheduleRepository.save(schedule);
-        }
+        closedDateService.reopen(schedule.getId(), date);
     }
 
     /**
@@ -94,6 +86,7 @@ public class ScheduleService {
      */
     @Transactional
     public Schedule createSchedule(Schedule schedule) {
+        weekScheduleService.invalidate();
         return scheduleRepository.save(schedule);
     }
 
@@ -110,6 +103,7 @@ public class ScheduleService {
         schedule.setIsActive(updatedSchedule.getIsActive());
         schedule.setRepeatWeekly(updatedSchedule.getRepeatWeekly());
         schedule.setDescription(updatedSchedule.getDescription());
+        weekScheduleService.invalidate();
         return scheduleRepository.save(schedule);
     }
 
@@ -118,7 +112,11 @@ public class ScheduleService {
      */
     @Transactional
     public void deleteSchedule(Long id) {
+        // Fechas cerradas y lista de espera referencian al horario: se borran antes
+        closedDateRepository.deleteByScheduleId(id);
+        waitlistEntryRepository.deleteByScheduleId(id);
         scheduleRepository.deleteById(id);
+        weekScheduleService.invalidate();
     }
 
     /**
@@ -126,10 +124,6 @@ public class ScheduleService {
      */
     public boolean isDayPaused(Long scheduleId, LocalDate date) {
         Schedule schedule = getScheduleById(scheduleId);
-        String pausedDates = schedule.getPausedDates();
-        if (pausedDates == null || pausedDates.isBlank()) {
-            return false;
-        }
-        return pausedDates.contains(date.toString());
+        return closedDateService.isClosed(schedule.getId(), date);
     }
 }
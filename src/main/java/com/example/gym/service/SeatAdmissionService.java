@@ -0,0 +1,111 @@
+package com.example.gym.service;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.model.Schedule;
+import com.example.gym.model.SlotSeat;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.SlotSeatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Admisión de reservas a un turno.
+ *
+ * Modos (reservation.admission.mode):
+ * - locking: bloquea la fila del horario (PESSIMISTIC_WRITE) y cuenta reservas confirmadas.
+ * - optimistic: sin bloquear el horario; toma el cupo con un UPDATE condicional sobre slot_seats
+ *   (taken = taken + 1 WHERE taken < capacidad).
+ *
+ * En ambos modos los contadores existentes se mantienen al día, para poder cambiar de modo
+ * sin reconstruirlos.
+ */
+@Service
+public class SeatAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatAdmissionService.class);
+
+    public static final String MODE_LOCKING = "locking";
+    public static final String MODE_OPTIMISTIC = "optimistic";
+
+    private final SlotSeatRepository slotSeatRepository;
+    private final ReservationRepository reservationRepository;
+    private final boolean optimistic;
+    private final boolean mysql;
+
+    public SeatAdmissionService(SlotSeatRepository slotSeatRepository,
+                                ReservationRepository reservationRepository,
+                                @Value("${reservation.admission.mode:" + MODE_LOCKING + "}") String mode,
+                                @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this.slotSeatRepository = slotSeatRepository;
+        this.reservationRepository = reservationRepository;
+        this.optimistic = MODE_OPTIMISTIC.equalsIgnoreCase(mode);
+        this.mysql = datasourceUrl.startsWith("jdbc:mysql:");
+        logger.info("Modo de admisión de reservas: {}", optimistic ? MODE_OPTIMISTIC : MODE_LOCKING);
+    }
+
+    public boolean isOptimistic() {
+        return optimistic;
+    }
+
+    /**
+     * Modo optimista: intenta tomar un cupo del turno. Debe llamarse dentro de la transacción
+     * de la reserva, después de las validaciones, para que el incremento se revierta si la
+     * reserva falla y la fila quede bloqueada el menor tiempo posible.
+     *
+     * @return true si se tomó el cupo, false si el turno está completo
+     */
+    public boolean tryTakeSeat(Schedule schedule, LocalDate date) {
+        // Lectura sin bloqueo: si el contador no existe se crea antes del UPDATE condicional
+        if (!slotSeatRepository.existsByScheduleIdAndSlotDate(schedule.getId(), date)) {
+            seedCounter(schedule, date);
+        }
+        return slotSeatRepository.takeSeatIfAvailable(schedule.getId(), date, schedule.getMaxCapacity()) == 1;
+    }
+
+    /** Modo con bloqueo: la reserva ya se validó contra reservations, solo se sincroniza el contador. */
+    public void seatTaken(Long scheduleId, LocalDate date) {
+        slotSeatRepository.incrementTaken(scheduleId, date);
+    }
+
+    /** Varias reservas confirmadas fueron canceladas; se libera un UPDATE por turno afectado. */
+    public void seatsReleased(Collection<Reservation> reservations) {
+        Map<SlotKey, Long> released = reservations.stream()
+            .collect(Collectors.groupingBy(r -> new SlotKey(r.getSchedule().getId(), r.getDate()), Collectors.counting()));
+        released.forEach((slot, count) -> slotSeatRepository.releaseSeats(slot.scheduleId(), slot.date(), count.intValue()));
+    }
+
+    /** Se cancelaron todas las reservas de varios horarios dentro de un rango (cierres masivos). */
+    public void slotsCleared(Collection<Long> scheduleIds, LocalDate from, LocalDate to) {
+        slotSeatRepository.resetTakenInRange(scheduleIds, from, to);
+    }
+
+    // Crea el contador con las reservas confirmadas actuales, en la misma transacción de la reserva.
+    // En MySQL el INSERT ... ON DUPLICATE KEY no falla si otro request lo creó primero (espera a que
+    // esa transacción termine y no hace nada). En H2 (dev) no hay gap locks y alcanza con un INSERT.
+    private void seedCounter(Schedule schedule, LocalDate date) {
+        Long scheduleId = schedule.getId();
+        Long confirmed = reservationRepository.countConfirmedReservationsByScheduleAndDate(scheduleId, date);
+        int taken = confirmed != null ? confirmed.intValue() : 0;
+        // Tenant del horario: la promoción desde la lista de espera puede correr en jobs sin TenantContext
+        if (mysql) {
+            slotSeatRepository.insertIfAbsent(schedule.getTenantId(), scheduleId, date, taken);
+            return;
+        }
+        SlotSeat seat = SlotSeat.builder()
+            .scheduleId(scheduleId)
+            .slotDate(date)
+            .taken(taken)
+            .build();
+        seat.setTenantId(schedule.getTenantId());
+        slotSeatRepository.saveAndFlush(seat);
+    }
+
+    private record SlotKey(Long scheduleId, LocalDate date) {}
+}
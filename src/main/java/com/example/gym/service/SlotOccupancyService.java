@@ -0,0 +1,327 @@
+package com.example.gym.service;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Ocupación de turnos en memoria: cupos confirmados por (horario, fecha), separados por tenant.
+ *
+ * Solo se guardan en memoria los días de una ventana acotada (hoy y los próximos
+ * reservation.occupancy.window-days), que son los que se consultan seguido; los días pasados o
+ * más lejanos se leen directo de la base. Los días de la ventana se cargan por día completo la
+ * primera vez que se consultan y luego se actualizan cuando se confirman o cancelan reservas
+ * (después del commit, para no reflejar transacciones que terminan en rollback). Un job periódico
+ * los concilia contra la base y corrige cualquier desvío.
+ *
+ * Cada día lleva una versión que sube con cada ajuste: una lectura de la base solo reemplaza los
+ * contadores si nadie ajustó el día mientras se consultaba, porque esa lectura podría no incluir
+ * el ajuste y lo pisaría.
+ *
+ * Solo se usa para mostrar disponibilidad: el control de capacidad al reservar sigue
+ * haciéndose contra la base.
+ */
+@Service
+public class SlotOccupancyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlotOccupancyService.class);
+
+    // Clave usada cuando el request no tiene tenant resuelto
+    private static final String NO_TENANT = "";
+
+    private final ReservationRepository reservationRepository;
+
+    // Días después de hoy que se guardan en memoria
+    @Value("${reservation.occupancy.window-days:14}")
+    private int windowDays;
+
+    // tenant -> fecha -> contadores del día (solo fechas de la ventana)
+    private final Map<String, Map<LocalDate, DaySlots>> counters = new ConcurrentHashMap<>();
+
+    public SlotOccupancyService(ReservationRepository reservationRepository) {
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Devuelve las reservas confirmadas por fecha y horario para el rango indicado (inclusive).
+     * Los días de la ventana que todavía no están en memoria se cargan con una sola consulta
+     * agrupada; los de fuera de la ventana se leen de la base sin guardarlos.
+     */
+    public Map<LocalDate, Map<Long, Integer>> getConfirmedCounts(LocalDate from, LocalDate to) {
+        String tenantId = currentTenant();
+        LocalDate today = LocalDate.now();
+        LocalDate windowEnd = today.plusDays(windowDays);
+
+        Map<LocalDate, Map<Long, Integer>> result = new HashMap<>();
+        if (from.isBefore(today)) {
+            readFromDatabase(tenantId, from, min(to, today.minusDays(1)), result);
+        }
+        if (to.isAfter(windowEnd)) {
+            readFromDatabase(tenantId, max(from, windowEnd.plusDays(1)), to, result);
+        }
+        LocalDate cachedFrom = max(from, today);
+        LocalDate cachedTo = min(to, windowEnd);
+        if (!cachedFrom.isAfter(cachedTo)) {
+            readFromMemory(tenantId, cachedFrom, cachedTo, result);
+        }
+        return result;
+    }
+
+    /** Una reserva quedó confirmada (nueva reserva o promoción desde la lista de espera). */
+    public void reservationConfirmed(Reservation reservation) {
+        String tenantId = reservation.getTenantId() != null ? reservation.getTenantId() : currentTenant();
+        adjustAfterCommit(tenantId, reservation.getSchedule().getId(), reservation.getDate(), 1);
+    }
+
+    /**
+     * Varias reservas confirmadas fueron canceladas (no-shows, desactivación de usuario, etc.).
+     * Usa el tenant de cada reserva porque algunos de estos caminos corren en jobs sin TenantContext.
+     */
+    public void reservationsCancelled(Collection<Reservation> reservations) {
+        String fallbackTenant = currentTenant();
+        for (Reservation reservation : reservations) {
+            String tenantId = reservation.getTenantId() != null ? reservation.getTenantId() : fallbackTenant;
+            adjustAfterCommit(tenantId, reservation.getSchedule().getId(), reservation.getDate(), -1);
+        }
+    }
+
+    /** Se cancelaron todas las reservas de varios horarios dentro de un rango (día pausado, cierres masivos). */
+    public void slotsCleared(Collection<Long> scheduleIds, LocalDate from, LocalDate to) {
+        String tenantId = currentTenant();
+        runAfterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            LocalDate last = min(to, today.plusDays(windowDays));
+            for (LocalDate day = max(from, today); !day.isAfter(last); day = day.plusDays(1)) {
+                daySlots(tenantId, day).adjust(slots -> scheduleIds.forEach(scheduleId -> slots.put(scheduleId, new AtomicInteger(0))));
+            }
+        });
+    }
+
+    /**
+     * Concilia los contadores en memoria contra la base y corrige desvíos.
+     * También descarta los días que ya pasaron para mantener acotada la memoria.
+     */
+    @Scheduled(fixedDelayString = "${reservation.occupancy.reconcile-ms:300000}",
+               initialDelayString = "${reservation.occupancy.reconcile-ms:300000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        counters.forEach((tenantId, days) -> {
+            days.keySet().removeIf(day -> day.isBefore(today));
+            Map<LocalDate, Long> loadedVersions = new HashMap<>();
+            days.forEach((day, daySlots) -> {
+                long version = daySlots.loadedVersion();
+                if (version >= 0) {
+                    loadedVersions.put(day, version);
+                }
+            });
+            if (loadedVersions.isEmpty()) {
+                return;
+            }
+            LocalDate from = loadedVersions.keySet().stream().min(LocalDate::compareTo).orElse(today);
+            LocalDate to = loadedVersions.keySet().stream().max(LocalDate::compareTo).orElse(today);
+            Map<LocalDate, Map<Long, Long>> actual = loadCounts(tenantId, from, to);
+
+            int drifted = 0;
+            int skipped = 0;
+            for (Map.Entry<LocalDate, Long> entry : loadedVersions.entrySet()) {
+                DaySlots daySlots = days.get(entry.getKey());
+                Map<Long, Long> actualSlots = actual.getOrDefault(entry.getKey(), Map.of());
+                int corrected = daySlots != null ? daySlots.reconcile(entry.getValue(), actualSlots) : -1;
+                if (corrected < 0) {
+                    skipped++; // se ajustó mientras se consultaba: se revisa en la próxima corrida
+                } else {
+                    drifted += corrected;
+                }
+            }
+            if (drifted > 0) {
+                logger.warn("Tenant '{}': corregidos {} contadores de ocupación desfasados", tenantId, drifted);
+            }
+            if (skipped > 0) {
+                logger.debug("Tenant '{}': {} días con ajustes durante la conciliación, se revisan en la próxima", tenantId, skipped);
+            }
+        });
+    }
+
+    // ===== Helpers =====
+
+    // Días de la ventana: se cargan los que faltan (una consulta) y se leen de memoria
+    private void readFromMemory(String tenantId, LocalDate from, LocalDate to, Map<LocalDate, Map<Long, Integer>> result) {
+        Map<LocalDate, Long> missing = new HashMap<>();
+        LocalDate firstMissing = null;
+        LocalDate lastMissing = null;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DaySlots daySlots = daySlots(tenantId, day);
+            Map<Long, Integer> snapshot = daySlots.snapshot();
+            if (snapshot != null) {
+                result.put(day, snapshot);
+                continue;
+            }
+            missing.put(day, daySlots.version());
+            if (firstMissing == null) {
+                firstMissing = day;
+            }
+            lastMissing = day;
+        }
+        if (firstMissing == null) {
+            return;
+        }
+
+        Map<LocalDate, Map<Long, Long>> loaded = loadCounts(tenantId, firstMissing, lastMissing);
+        missing.forEach((day, version) -> {
+            Map<Long, Long> counts = loaded.getOrDefault(day, Map.of());
+            // Si el día se ajustó mientras se consultaba no se guarda; se vuelve a cargar en la próxima consulta
+            daySlots(tenantId, day).load(version, counts);
+            Map<Long, Integer> snapshot = new HashMap<>();
+            counts.forEach((scheduleId, count) -> snapshot.put(scheduleId, count.intValue()));
+            result.put(day, snapshot);
+        });
+    }
+
+    // Días fuera de la ventana: directo de la base, sin guardarlos
+    private void readFromDatabase(String tenantId, LocalDate from, LocalDate to, Map<LocalDate, Map<Long, Integer>> result) {
+        Map<LocalDate, Map<Long, Long>> loaded = loadCounts(tenantId, from, to);
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Map<Long, Integer> snapshot = new HashMap<>();
+            loaded.getOrDefault(day, Map.of()).forEach((scheduleId, count) -> snapshot.put(scheduleId, count.intValue()));
+            result.put(day, snapshot);
+        }
+    }
+
+    private Map<LocalDate, Map<Long, Long>> loadCounts(String tenantId, LocalDate from, LocalDate to) {
+        List<ReservationRepository.SlotCount> rows = NO_TENANT.equals(tenantId)
+            ? reservationRepository.countConfirmedGroupedByScheduleAndDate(from, to)
+            : reservationRepository.countConfirmedGroupedByScheduleAndDateForTenant(tenantId, from, to);
+        Map<LocalDate, Map<Long, Long>> result = new HashMap<>();
+        for (ReservationRepository.SlotCount row : rows) {
+            result.computeIfAbsent(row.getSlotDate(), d -> new HashMap<>())
+                  .put(row.getScheduleId(), row.getConfirmed());
+        }
+        return result;
+    }
+
+    private void adjustAfterCommit(String tenantId, Long scheduleId, LocalDate date, int delta) {
+        runAfterCommit(() -> {
+            LocalDate today = LocalDate.now();
+            if (date.isBefore(today) || date.isAfter(today.plusDays(windowDays))) {
+                return; // fuera de la ventana: se lee de la base cuando se consulta
+            }
+            // Si el día no está cargado solo sube la versión; se leerá de la base cuando se consulte
+            daySlots(tenantId, date).adjust(slots ->
+                slots.computeIfAbsent(scheduleId, id -> new AtomicInteger())
+                     .updateAndGet(value -> Math.max(0, value + delta)));
+        });
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private DaySlots daySlots(String tenantId, LocalDate day) {
+        return counters.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>())
+                       .computeIfAbsent(day, d -> new DaySlots());
+    }
+
+    private String currentTenant() {
+        String tenantId = TenantContext.getCurrentTenant();
+        return tenantId != null ? tenantId : NO_TENANT;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    /**
+     * Contadores de un día: scheduleId -> reservas confirmadas (null hasta que se carga) y la
+     * versión, que sube con cada ajuste. Ajustes, cargas y conciliaciones se sincronizan sobre el
+     * día; las lecturas de los contadores no.
+     */
+    private static final class DaySlots {
+        private long version;
+        private volatile Map<Long, AtomicInteger> slots;
+
+        synchronized long version() {
+            return version;
+        }
+
+        // Versión si el día está cargado, -1 si no
+        synchronized long loadedVersion() {
+            return slots != null ? version : -1;
+        }
+
+        Map<Long, Integer> snapshot() {
+            Map<Long, AtomicInteger> current = slots;
+            if (current == null) {
+                return null;
+            }
+            Map<Long, Integer> snapshot = new HashMap<>();
+            current.forEach((scheduleId, count) -> snapshot.put(scheduleId, count.get()));
+            return snapshot;
+        }
+
+        synchronized void adjust(Consumer<Map<Long, AtomicInteger>> change) {
+            version++;
+            if (slots != null) {
+                change.accept(slots);
+            }
+        }
+
+        // Guarda lo leído de la base si el día sigue sin cargar y sin ajustes desde expectedVersion
+        synchronized void load(long expectedVersion, Map<Long, Long> counts) {
+            if (slots != null || version != expectedVersion) {
+                return;
+            }
+            Map<Long, AtomicInteger> loaded = new ConcurrentHashMap<>();
+            counts.forEach((scheduleId, count) -> loaded.put(scheduleId, new AtomicInteger(count.intValue())));
+            slots = loaded;
+        }
+
+        // Corrige contra la base; -1 si hubo ajustes desde expectedVersion (la lectura puede no incluirlos)
+        synchronized int reconcile(long expectedVersion, Map<Long, Long> actual) {
+            if (slots == null || version != expectedVersion) {
+                return -1;
+            }
+            Set<Long> scheduleIds = new HashSet<>(slots.keySet());
+            scheduleIds.addAll(actual.keySet());
+            int drifted = 0;
+            for (Long scheduleId : scheduleIds) {
+                int expected = actual.getOrDefault(scheduleId, 0L).intValue();
+                AtomicInteger cached = slots.computeIfAbsent(scheduleId, id -> new AtomicInteger());
+                if (cached.getAndSet(expected) != expected) {
+                    drifted++;
+                }
+            }
+            return drifted;
+        }
+    }
+}
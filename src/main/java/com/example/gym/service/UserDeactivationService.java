@@ -4,6 +4,7 @@ import com.example.gym.model.Reservation;
 import com.example.gym.model.User;
 import com.example.gym.repository.ReservationRepository;
 import com.example.gym.repository.UserRepository;
+import com.example.gym.security.TokenRevocationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -20,10 +21,18 @@ public class UserDeactivationService {
 
     private final UserRepository userRepository;
     private final ReservationRepository reservationRepository;
+    private final ReservationCancellationService reservationCancellationService;
+    private final WaitlistService waitlistService;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
-    public UserDeactivationService(UserRepository userRepository, ReservationRepository reservationRepository) {
+    public UserDeactivationService(UserRepository userRepository, ReservationRepository reservationRepository,
+                                   ReservationCancellationService reservationCancellationService,
+                                   WaitlistService waitlistService, TokenRevocationRegistry tokenRevocationRegistry) {
         this.userRepository = userRepository;
         this.reservationRepository = reservationRepository;
+        this.reservationCancellationService = reservationCancellationService;
+        this.waitlistService = waitlistService;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
     }
 
     @Transactional
@@ -42,6 +51,7 @@ public class UserDeactivationService {
             target.setDeactivatedByRole("SYSTEM");
         }
         target.setDeactivationReason(reason != null && !reason.isBlank() ? reason : "MANUAL");
+        tokenRevocationRegistry.revoke(target);
         userRepository.save(target);
 
         cancelFutureReservations(target);
@@ -61,6 +71,7 @@ public class UserDeactivationService {
             user.setDeactivatedByUserId(null);
             user.setDeactivatedByRole("SYSTEM");
             user.setDeactivationReason(reason);
+            tokenRevocationRegistry.revoke(user);
             userRepository.save(user);
             cancelFutureReservations(user);
             deactivated++;
@@ -69,16 +80,13 @@ public class UserDeactivationService {
     }
 
     private void cancelFutureReservations(User user) {
+        waitlistService.cancelForUser(user.getId());
         List<Reservation> futureReservations = reservationRepository.findFutureConfirmedByUser(user.getId(), LocalDate.now());
         if (futureReservations.isEmpty()) {
             return;
         }
-        LocalDateTime now = LocalDateTime.now();
-        for (Reservation reservation : futureReservations) {
-            reservation.setStatus(Reservation.ReservationStatus.CANCELLED);
-            reservation.setCancelledAt(now);
-        }
-        reservationRepository.saveAll(futureReservations);
+        // Cancela, libera los cupos y promueve la lista de espera de cada turno
+        reservationCancellationService.cancelAll(futureReservations);
         logger.info("Canceladas {} reservas futuras para el usuario {}", futureReservations.size(), user.getId());
     }
 }
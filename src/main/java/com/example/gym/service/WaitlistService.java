@@ -0,0 +1,195 @@
+package com.example.gym.service;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.model.Schedule;
+import com.example.gym.model.User;
+import com.example.gym.model.WaitlistEntry;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.WaitlistEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lista de espera FIFO por turno (horario + fecha).
+ *
+ * Cuando se libera un cupo, la promoción corre en la misma transacción que la cancelación y
+ * usa el mismo camino de admisión que makeReservation (bloqueo del horario o contador de cupos),
+ * así que nunca se supera la capacidad del turno.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ReservationRepository reservationRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final SeatAdmissionService seatAdmissionService;
+    private final SlotOccupancyService slotOccupancyService;
+
+    public WaitlistService(WaitlistEntryRepository waitlistEntryRepository,
+                           ReservationRepository reservationRepository,
+                           ScheduleRepository scheduleRepository,
+                           SeatAdmissionService seatAdmissionService,
+                           SlotOccupancyService slotOccupancyService) {
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.reservationRepository = reservationRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.seatAdmissionService = seatAdmissionService;
+        this.slotOccupancyService = slotOccupancyService;
+    }
+
+    /**
+     * Anota al usuario al final de la lista de espera del turno.
+     * Las validaciones (turno completo, duplicados, etc.) las hace el controller.
+     */
+    @Transactional
+    public WaitlistEntry join(User user, Schedule schedule, LocalDate date) {
+        WaitlistEntry entry = WaitlistEntry.builder()
+            .user(user)
+            .schedule(schedule)
+            .date(date)
+            .build();
+        return waitlistEntryRepository.save(entry);
+    }
+
+    /** Posición (1 = siguiente) de una entrada en espera. */
+    public long positionOf(WaitlistEntry entry) {
+        Long ahead = waitlistEntryRepository.countAhead(
+            entry.getSchedule().getId(), entry.getDate(), entry.getCreatedAt(), entry.getId());
+        return (ahead != null ? ahead : 0L) + 1;
+    }
+
+    /**
+     * Promueve entradas en espera del turno mientras haya cupo.
+     * Las entradas de usuarios que ya no pueden reservar se descartan.
+     *
+     * @return reservas creadas
+     */
+    @Transactional
+    public List<Reservation> promote(Long scheduleId, LocalDate date) {
+        if (date.isBefore(LocalDate.now())) {
+            return List.of();
+        }
+        Optional<Schedule> scheduleOpt = seatAdmissionService.isOptimistic()
+            ? scheduleRepository.findScopedById(scheduleId)
+            : scheduleRepository.findByIdForUpdate(scheduleId);
+        if (scheduleOpt.isEmpty() || !Boolean.TRUE.equals(scheduleOpt.get().getIsActive())) {
+            return List.of();
+        }
+        Schedule schedule = scheduleOpt.get();
+
+        List<Reservation> promoted = new ArrayList<>();
+        while (true) {
+            List<WaitlistEntry> next = waitlistEntryRepository.findNextWaiting(scheduleId, date, PageRequest.of(0, 1));
+            if (next.isEmpty()) {
+                break;
+            }
+            WaitlistEntry entry = next.get(0);
+            LocalDateTime now = LocalDateTime.now();
+
+            if (!isEligible(entry.getUser(), scheduleId, date)) {
+                entry.setStatus(WaitlistEntry.WaitlistStatus.CANCELLED);
+                entry.setResolvedAt(now);
+                waitlistEntryRepository.save(entry);
+                continue;
+            }
+            if (!admit(schedule, date)) {
+                break; // sin cupo: la entrada sigue primera en la fila
+            }
+
+            Reservation reservation = Reservation.builder()
+                .user(entry.getUser())
+                .schedule(schedule)
+                .date(date)
+                .status(Reservation.ReservationStatus.CONFIRMED)
+                .build();
+            // Puede correr desde jobs sin TenantContext: el tenant sale de la entrada
+            reservation.setTenantId(entry.getTenantId());
+            Reservation saved = reservationRepository.saveAndFlush(reservation);
+
+            entry.setStatus(WaitlistEntry.WaitlistStatus.PROMOTED);
+            entry.setResolvedAt(now);
+            entry.setReservationId(saved.getId());
+            waitlistEntryRepository.save(entry);
+
+            slotOccupancyService.reservationConfirmed(saved);
+            promoted.add(saved);
+            logger.info("Lista de espera: usuario {} promovido al horario {} del {}", entry.getUser().getId(), scheduleId, date);
+        }
+        return promoted;
+    }
+
+    /** Promueve la lista de espera de cada turno afectado por un grupo de cancelaciones. */
+    @Transactional
+    public int promoteForCancelled(Collection<Reservation> cancelled) {
+        Set<SlotKey> slots = new LinkedHashSet<>();
+        for (Reservation reservation : cancelled) {
+            slots.add(new SlotKey(reservation.getSchedule().getId(), reservation.getDate()));
+        }
+        int promoted = 0;
+        for (SlotKey slot : slots) {
+            promoted += promote(slot.scheduleId(), slot.date()).size();
+        }
+        return promoted;
+    }
+
+    /** Cancela la lista de espera de varios horarios dentro de un rango (cierres masivos). */
+    @Transactional
+    public int cancelForSlots(Collection<Long> scheduleIds, LocalDate from, LocalDate to) {
+        return waitlistEntryRepository.cancelWaitingForSlots(scheduleIds, from, to, LocalDateTime.now());
+    }
+
+    /** Cancela todas las entradas en espera de un usuario (ej. desactivación o bloqueo por inasistencias). */
+    @Transactional
+    public int cancelForUser(Long userId) {
+        return waitlistEntryRepository.cancelWaitingByUser(userId, LocalDateTime.now());
+    }
+
+    // ===== Helpers =====
+
+    // Mismas reglas que makeReservation: usuario activo, sin reserva previa, no cancelado por el staff
+    // y dentro del límite semanal del plan
+    private boolean isEligible(User user, Long scheduleId, LocalDate date) {
+        if (user.getStatus() != User.UserStatus.ACTIVE) {
+            return false;
+        }
+        LocalDate weekStart = date.with(DayOfWeek.MONDAY);
+        ReservationRepository.ReservationEligibility eligibility = reservationRepository.findReservationEligibility(
+            user.getId(), scheduleId, date, weekStart, weekStart.plusDays(6));
+        if (eligibility.getAlreadyBooked() > 0 || eligibility.getStaffCancelled() > 0) {
+            return false;
+        }
+        Integer daysPerWeek = eligibility.getDaysPerWeek();
+        return daysPerWeek == null || daysPerWeek <= 0 || eligibility.getAttendedInWeek() < daysPerWeek;
+    }
+
+    // Toma un cupo con el mismo modo de admisión que makeReservation
+    private boolean admit(Schedule schedule, LocalDate date) {
+        if (seatAdmissionService.isOptimistic()) {
+            return seatAdmissionService.tryTakeSeat(schedule, date);
+        }
+        Long confirmed = reservationRepository.countConfirmedReservationsByScheduleAndDate(schedule.getId(), date);
+        if (confirmed != null && confirmed >= schedule.getMaxCapacity()) {
+            return false;
+        }
+        seatAdmissionService.seatTaken(schedule.getId(), date);
+        return true;
+    }
+
+    private record SlotKey(Long scheduleId, LocalDate date) {}
+}
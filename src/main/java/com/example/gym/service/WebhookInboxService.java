@@ -0,0 +1,262 @@
+package com.example.gym.service;
+
+import com.example.gym.model.WebhookEvent;
+import com.example.gym.repository.WebhookEventRepository;
+import com.example.gym.tenant.TenantContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola persistente de notificaciones de Mercado Pago.
+ *
+ * El webhook valida la firma, guarda el evento con enqueue y responde enseguida. Un poller toma
+ * los eventos vencidos y los reparte en un pool acotado de workers, que consultan el pago en MP y
+ * activan la suscripción. Si un intento falla se reprograma con backoff exponencial hasta agotar
+ * los intentos. Con menos frecuencia se devuelven a la cola los eventos abandonados y se publican
+ * la profundidad y el atraso como métricas; una vez por día se borran los eventos terminados.
+ */
+@Service
+public class WebhookInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookInboxService.class);
+
+    public static final String TYPE_PAYMENT = "payment";
+
+    private final WebhookEventRepository webhookEventRepository;
+    private final PaymentStatusCache paymentStatusCache;
+    private final PaymentService paymentService;
+
+    @Value("${mercadopago.webhook-inbox.workers:4}")
+    private int workers;
+
+    @Value("${mercadopago.webhook-inbox.max-attempts:8}")
+    private int maxAttempts;
+
+    // Espera antes del segundo intento; se duplica en cada reintento hasta el máximo
+    @Value("${mercadopago.webhook-inbox.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${mercadopago.webhook-inbox.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    // Un evento en proceso por más de este tiempo se considera abandonado y vuelve a la cola
+    @Value("${mercadopago.webhook-inbox.stale-seconds:300}")
+    private long staleSeconds;
+
+    // Días que se conservan los eventos procesados y los descartados (estos, para poder revisarlos)
+    @Value("${mercadopago.webhook-inbox.retention.done-days:7}")
+    private int doneRetentionDays;
+
+    @Value("${mercadopago.webhook-inbox.retention.failed-days:30}")
+    private int failedRetentionDays;
+
+    private ExecutorService pool;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Counter processed;
+    private final Counter retried;
+    private final Counter failed;
+
+    public WebhookInboxService(WebhookEventRepository webhookEventRepository,
+                               PaymentStatusCache paymentStatusCache,
+                               PaymentService paymentService,
+                               MeterRegistry meterRegistry) {
+        this.webhookEventRepository = webhookEventRepository;
+        this.paymentStatusCache = paymentStatusCache;
+        this.paymentService = paymentService;
+        Gauge.builder("gym.webhook.inbox.depth", depth, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("gym.webhook.inbox.lag.seconds", lagSeconds, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("gym.webhook.inbox.in.flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        this.processed = Counter.builder("gym.webhook.inbox.events").tag("outcome", "processed").register(meterRegistry);
+        this.retried = Counter.builder("gym.webhook.inbox.events").tag("outcome", "retried").register(meterRegistry);
+        this.failed = Counter.builder("gym.webhook.inbox.events").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "webhook-inbox-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /** Guarda una notificación para procesarla en segundo plano (tenant del request actual). */
+    public WebhookEvent enqueue(String eventType, String resourceId, String payload) {
+        WebhookEvent event = WebhookEvent.builder()
+            .eventType(eventType)
+            .resourceId(resourceId)
+            .payload(payload)
+            .build();
+        return webhookEventRepository.save(event);
+    }
+
+    /**
+     * Toma los eventos vencidos hasta completar los workers libres. Un evento solo se procesa si
+     * el UPDATE condicional lo pasa a PROCESSING, así que dos instancias no lo toman a la vez.
+     */
+    @Scheduled(fixedDelayString = "${mercadopago.webhook-inbox.poll-ms:1000}",
+               initialDelayString = "${mercadopago.webhook-inbox.poll-ms:1000}")
+    public void poll() {
+        // Microsegundos: es lo que guarda la columna, y finish compara lockedAt con este valor
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        int free = workers - inFlight.get();
+        if (free <= 0) {
+            return;
+        }
+        List<Long> due = webhookEventRepository.findDueIds(now, PageRequest.of(0, free));
+        for (Long id : due) {
+            if (webhookEventRepository.claim(id, now) == 0) {
+                continue;
+            }
+            inFlight.incrementAndGet();
+            pool.execute(() -> {
+                try {
+                    process(id, now);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    /** Devuelve a la cola los eventos abandonados y actualiza las métricas de la cola. */
+    @Scheduled(fixedDelayString = "${mercadopago.webhook-inbox.maintenance-ms:30000}",
+               initialDelayString = "${mercadopago.webhook-inbox.maintenance-ms:30000}")
+    public void maintain() {
+        LocalDateTime now = LocalDateTime.now();
+        webhookEventRepository.releaseStale(now.minusSeconds(staleSeconds));
+        refreshMetrics(now);
+    }
+
+    /** Borra los eventos procesados y descartados que superaron su retención. */
+    @Scheduled(cron = "${mercadopago.webhook-inbox.retention.cron:0 15 3 * * *}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int done = webhookEventRepository.deleteByStatusReceivedBefore(
+            WebhookEvent.WebhookStatus.DONE, now.minusDays(doneRetentionDays));
+        int failed = webhookEventRepository.deleteByStatusReceivedBefore(
+            WebhookEvent.WebhookStatus.FAILED, now.minusDays(failedRetentionDays));
+        if (done + failed > 0) {
+            logger.info("[Webhook] Limpieza: {} eventos procesados y {} descartados borrados", done, failed);
+        }
+    }
+
+    // ===== Helpers =====
+
+    private void process(Long id, LocalDateTime claimedAt) {
+        WebhookEvent event = webhookEventRepository.findById(id).orElse(null);
+        if (event == null) {
+            return;
+        }
+        event.setAttempts(event.getAttempts() + 1);
+        TenantContext.setCurrentTenant(event.getTenantId());
+        String error = null;
+        try {
+            // Un pago ya registrado no se vuelve a consultar en MP
+            if (TYPE_PAYMENT.equalsIgnoreCase(event.getEventType())
+                    && !paymentService.isPaymentProcessed(event.getResourceId())) {
+                processPayment(event.getResourceId());
+            }
+            event.setStatus(WebhookEvent.WebhookStatus.DONE);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLastError(null);
+        } catch (Exception e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            event.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(WebhookEvent.WebhookStatus.FAILED);
+            } else {
+                event.setStatus(WebhookEvent.WebhookStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+            }
+        } finally {
+            TenantContext.clear();
+        }
+
+        // No se usa save(): si el claim se liberó por abandonado, pisaría el resultado del otro worker
+        int updated = webhookEventRepository.finish(id, claimedAt, event.getStatus(), event.getAttempts(),
+            event.getNextAttemptAt(), event.getProcessedAt(), event.getLastError());
+        if (updated == 0) {
+            logger.warn("[Webhook] Evento {} (pago {}) reclamado por otro worker; se descarta este intento",
+                id, event.getResourceId());
+            return;
+        }
+        switch (event.getStatus()) {
+            case DONE -> processed.increment();
+            case FAILED -> {
+                failed.increment();
+                logger.error("[Webhook] Evento {} (pago {}) descartado tras {} intentos: {}",
+                    id, event.getResourceId(), event.getAttempts(), error);
+            }
+            default -> {
+                retried.increment();
+                logger.warn("[Webhook] Evento {} (pago {}) falló el intento {}: {}",
+                    id, event.getResourceId(), event.getAttempts(), error);
+            }
+        }
+    }
+
+    // Consulta el pago (MP o cache) con el token del tenant y activa la suscripción si está aprobado
+    private void processPayment(String paymentId) throws Exception {
+        Map<String, Object> payment = paymentStatusCache.refresh(paymentId);
+        String status = String.valueOf(payment.get("status"));
+        String externalRef = payment.get("external_reference") instanceof String
+            ? (String) payment.get("external_reference") : null;
+
+        if ("approved".equalsIgnoreCase(status)) {
+            try {
+                paymentService.activateSubscription(externalRef, paymentId);
+            } catch (DataIntegrityViolationException e) {
+                // Otra entrega (o el checkout) registró el mismo pago al mismo tiempo
+                if (!paymentService.isPaymentProcessed(paymentId)) {
+                    throw e;
+                }
+                logger.info("[Webhook] Pago {} ya registrado por otra entrega", paymentId);
+            }
+        } else {
+            logger.info("[Webhook] Pago {} con status '{}' — no se activa suscripción.", paymentId, status);
+        }
+    }
+
+    private Duration backoff(int attempts) {
+        long seconds = backoffSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+    }
+
+    private void refreshMetrics(LocalDateTime now) {
+        depth.set(webhookEventRepository.countPending());
+        LocalDateTime oldest = webhookEventRepository.findOldestPendingReceivedAt();
+        lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, now).getSeconds()) : 0);
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.gym.service;
+
+import com.example.gym.dto.WeekScheduleDTO;
+import com.example.gym.dto.WeekSlotDTO;
+import com.example.gym.model.Schedule;
+import com.example.gym.repository.ClosedDateRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.tenant.TenantContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grilla semanal de turnos: cada horario activo en cada fecha concreta de una semana ISO.
+ *
+ * La grilla (horarios + fechas cerradas) se arma una vez por tenant y semana y queda en memoria
+ * hasta que cambia un horario o una fecha cerrada, que sube la versión del tenant. La ocupación
+ * se toma en cada llamada de SlotOccupancyService, que ya se mantiene al día con cada reserva o
+ * cancelación y carga los días faltantes con una sola consulta agrupada.
+ */
+@Service
+public class WeekScheduleService {
+
+    // Clave usada cuando el request no tiene tenant resuelto
+    private static final String NO_TENANT = "";
+
+    // Semanas en memoria por tenant; al superarlo se descartan las más antiguas
+    private static final int MAX_CACHED_WEEKS = 12;
+
+    private final ScheduleRepository scheduleRepository;
+    private final ClosedDateRepository closedDateRepository;
+    private final SlotOccupancyService slotOccupancyService;
+
+    // tenant -> versión de horarios/cierres; una grilla cacheada con otra versión está vencida
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // tenant -> lunes de la semana -> grilla
+    private final Map<String, Map<LocalDate, CachedWeek>> weeks = new ConcurrentHashMap<>();
+
+    public WeekScheduleService(ScheduleRepository scheduleRepository,
+                               ClosedDateRepository closedDateRepository,
+                               SlotOccupancyService slotOccupancyService) {
+        this.scheduleRepository = scheduleRepository;
+        this.closedDateRepository = closedDateRepository;
+        this.slotOccupancyService = slotOccupancyService;
+    }
+
+    /** Lunes de la semana ISO indicada ("2025-W03"). */
+    public static LocalDate parseIsoWeek(String week) {
+        return LocalDate.parse(week + "-1", DateTimeFormatter.ISO_WEEK_DATE);
+    }
+
+    /**
+     * Grilla de la semana que empieza en el lunes indicado, con la ocupación actual de cada turno.
+     */
+    public WeekScheduleDTO getWeek(LocalDate weekStart) {
+        LocalDate monday = weekStart.with(DayOfWeek.MONDAY);
+        LocalDate sunday = monday.plusDays(6);
+        List<GridSlot> grid = gridFor(currentTenant(), monday);
+        Map<LocalDate, Map<Long, Integer>> counts = slotOccupancyService.getConfirmedCounts(monday, sunday);
+
+        List<WeekSlotDTO> slots = new ArrayList<>(grid.size());
+        for (GridSlot slot : grid) {
+            int confirmed = counts.getOrDefault(slot.date(), Map.of()).getOrDefault(slot.scheduleId(), 0);
+            WeekSlotDTO dto = new WeekSlotDTO();
+            dto.setScheduleId(slot.scheduleId());
+            dto.setDate(slot.date().toString());
+            dto.setDayOfWeek(slot.dayOfWeek());
+            dto.setStartTime(slot.startTime());
+            dto.setEndTime(slot.endTime());
+            dto.setMaxCapacity(slot.maxCapacity());
+            dto.setConfirmedReservations(confirmed);
+            dto.setAvailableSpots(slot.closed() ? 0 : Math.max(0, slot.maxCapacity() - confirmed));
+            dto.setClosed(slot.closed());
+            dto.setDescription(slot.description());
+            slots.add(dto);
+        }
+
+        WeekScheduleDTO week = new WeekScheduleDTO();
+        week.setWeek(String.format("%d-W%02d",
+            monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)));
+        week.setWeekStart(monday.toString());
+        week.setWeekEnd(sunday.toString());
+        week.setSlots(slots);
+        return week;
+    }
+
+    /**
+     * Cambió un horario o una fecha cerrada del tenant actual: las grillas cacheadas quedan vencidas
+     * después del commit (si hay transacción) para no cachear datos que terminan en rollback.
+     */
+    public void invalidate() {
+        String tenantId = currentTenant();
+        Runnable bump = () -> tenantVersion(tenantId).incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        } else {
+            bump.run();
+        }
+    }
+
+    // ===== Helpers =====
+
+    private List<GridSlot> gridFor(String tenantId, LocalDate monday) {
+        Map<LocalDate, CachedWeek> tenantWeeks = weeks.computeIfAbsent(tenantId, t -> new ConcurrentHashMap<>());
+        // La versión se lee antes de armar la grilla: si cambia mientras tanto, la grilla nace vencida
+        long version = tenantVersion(tenantId).get();
+        CachedWeek cached = tenantWeeks.get(monday);
+        if (cached != null && cached.version() == version) {
+            return cached.slots();
+        }
+
+        List<GridSlot> grid = buildGrid(monday);
+        tenantWeeks.put(monday, new CachedWeek(version, grid));
+        if (tenantWeeks.size() > MAX_CACHED_WEEKS) {
+            tenantWeeks.keySet().stream()
+                .sorted()
+                .limit(tenantWeeks.size() - MAX_CACHED_WEEKS)
+                .toList()
+                .forEach(tenantWeeks::remove);
+        }
+        return grid;
+    }
+
+    private List<GridSlot> buildGrid(LocalDate monday) {
+        LocalDate sunday = monday.plusDays(6);
+        List<Schedule> schedules = scheduleRepository.findAllActiveOrderedByDayAndTime();
+        Set<String> closed = new HashSet<>();
+        for (ClosedDateRepository.ClosedSlot slot : closedDateRepository.findClosedSlotsBetween(monday, sunday)) {
+            closed.add(slot.getScheduleId() + "|" + slot.getDate());
+        }
+
+        // Los horarios ya vienen ordenados por hora de inicio, así que la grilla queda por fecha y hora
+        List<GridSlot> grid = new ArrayList<>();
+        for (LocalDate day = monday; !day.isAfter(sunday); day = day.plusDays(1)) {
+            int dayOfWeek = day.getDayOfWeek().getValue() % 7; // 0=Domingo, 1=Lunes
+            for (Schedule schedule : schedules) {
+                if (schedule.getDayOfWeek() != dayOfWeek) {
+                    continue;
+                }
+                grid.add(new GridSlot(
+                    schedule.getId(),
+                    day,
+                    dayOfWeek,
+                    schedule.getStartTime().toString(),
+                    schedule.getEndTime().toString(),
+                    schedule.getMaxCapacity(),
+                    schedule.getDescription(),
+                    closed.contains(schedule.getId() + "|" + day)));
+            }
+        }
+        return List.copyOf(grid);
+    }
+
+    private AtomicLong tenantVersion(String tenantId) {
+        return versions.computeIfAbsent(tenantId, t -> new AtomicLong());
+    }
+
+    private String currentTenant() {
+        String tenantId = TenantContext.getCurrentTenant();
+        return tenantId != null ? tenantId : NO_TENANT;
+    }
+
+    private record GridSlot(Long scheduleId, LocalDate date, int dayOfWeek, String startTime, String endTime,
+                            int maxCapacity, String description, boolean closed) {}
+
+    private record CachedWeek(long version, List<GridSlot> slots) {}
+}
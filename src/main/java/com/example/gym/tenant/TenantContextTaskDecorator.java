@@ -0,0 +1,34 @@
+package com.example.gym.tenant;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Propaga el tenant del hilo que encola una tarea al hilo que la ejecuta (@Async, procesamiento
+ * asíncrono de Spring MVC). Spring Boot lo aplica al executor de la aplicación, tanto con threads
+ * de plataforma como con threads virtuales.
+ */
+@Component
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        String tenantId = TenantContext.getCurrentTenant();
+        if (tenantId == null) {
+            return runnable;
+        }
+        return () -> {
+            String previous = TenantContext.getCurrentTenant();
+            TenantContext.setCurrentTenant(tenantId);
+            try {
+                runnable.run();
+            } finally {
+                if (previous != null) {
+                    TenantContext.setCurrentTenant(previous);
+                } else {
+                    TenantContext.clear();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gym.tenant;
+
+import com.example.gym.model.Tenant;
+import com.example.gym.repository.TenantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estado de los gimnasios (tabla tenants) en memoria, para que TenantRequestFilter rechace
+ * tenants desconocidos o suspendidos antes de cualquier acceso a la base.
+ *
+ * Se carga al crear el bean (antes de que Tomcat acepte requests), se actualiza cuando
+ * AdminTenantController cambia un gimnasio y se recarga periódicamente (por si otra instancia hizo
+ * el cambio). Mientras no haya una carga exitosa (ej. la base no respondía al iniciar) se aceptan
+ * todos los tenants, como antes de existir el registro. También lleva la cuenta de requests por
+ * tenant, expuesta como métrica gym.tenant.requests.
+ */
+@Component
+public class TenantRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TenantRegistry.class);
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+
+    /** Resultado de validar el tenant de un request. */
+    public enum Admission { ALLOWED, UNKNOWN, SUSPENDED }
+
+    private final TenantRepository tenantRepository;
+    private final MeterRegistry meterRegistry;
+
+    // El tenant por defecto se acepta aunque no esté en la tabla (instalaciones de un solo gimnasio)
+    @Value("${multitenancy.default-tenant:}")
+    private String defaultTenant;
+
+    @Value("${multitenancy.registry.reject-unknown:true}")
+    private boolean rejectUnknown;
+
+    // tenantId -> status. Se reemplaza completo en cada recarga.
+    private volatile Map<String, String> statuses = Map.of();
+
+    // true después de la primera carga exitosa; antes no se rechaza ningún tenant
+    private volatile boolean loaded;
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+    private final Counter rejectedUnknown;
+    private final Counter rejectedSuspended;
+
+    public TenantRegistry(TenantRepository tenantRepository, MeterRegistry meterRegistry) {
+        this.tenantRepository = tenantRepository;
+        this.meterRegistry = meterRegistry;
+        this.rejectedUnknown = Counter.builder("gym.tenant.rejected").tag("reason", "unknown").register(meterRegistry);
+        this.rejectedSuspended = Counter.builder("gym.tenant.rejected").tag("reason", "suspended").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.warn("No se pudo cargar el registro de tenants al iniciar; se aceptan todos hasta la próxima recarga: {}",
+                e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${multitenancy.registry.refresh-ms:60000}",
+               initialDelayString = "${multitenancy.registry.refresh-ms:60000}")
+    public void refresh() {
+        Map<String, String> current = new HashMap<>();
+        for (Tenant tenant : tenantRepository.findAll()) {
+            current.put(tenant.getTenantId(), tenant.getStatus());
+        }
+        statuses = Map.copyOf(current);
+        loaded = true;
+        logger.debug("Registro de tenants recargado: {} gimnasios", current.size());
+    }
+
+    /** Un gimnasio fue creado o cambió de estado. */
+    public void update(Tenant tenant) {
+        Map<String, String> updated = new HashMap<>(statuses);
+        updated.put(tenant.getTenantId(), tenant.getStatus());
+        statuses = Map.copyOf(updated);
+    }
+
+    /**
+     * Valida el tenant de un request y, si se acepta, lo cuenta. No accede a la base.
+     */
+    public Admission admit(String tenantId) {
+        String status = statuses.get(tenantId);
+        if (status == null && !tenantId.equals(defaultTenant)) {
+            if (rejectUnknown && loaded) {
+                rejectedUnknown.increment();
+                return Admission.UNKNOWN;
+            }
+        } else if (status != null && !STATUS_ACTIVE.equals(status)) {
+            rejectedSuspended.increment();
+            return Admission.SUSPENDED;
+        }
+        requestCounts.computeIfAbsent(tenantId, this::registerCounter).increment();
+        return Admission.ALLOWED;
+    }
+
+    /** Requests aceptados por tenant desde que arrancó la instancia. */
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestCounts.forEach((tenantId, adder) -> counts.put(tenantId, adder.sum()));
+        return counts;
+    }
+
+    // Solo se registran tenants aceptados, así la cantidad de series queda acotada a los gimnasios reales
+    private LongAdder registerCounter(String tenantId) {
+        LongAdder adder = new LongAdder();
+        FunctionCounter.builder("gym.tenant.requests", adder, LongAdder::sum)
+            .tag("tenant", tenantId)
+            .register(meterRegistry);
+        return adder;
+    }
+}
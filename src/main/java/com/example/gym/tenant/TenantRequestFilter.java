@@ -1,5 +1,6 @@
 package com.example.gym.tenant;
 
+import com.example.gym.security.RouteClassifier;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.servlet.FilterChain;
@@ -7,6 +8,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -17,6 +19,7 @@ import java.io.IOException;
 
 /**
  * Resuelve el tenant actual y habilita el filtro de Hibernate por request.
+ * Los tenants desconocidos o suspendidos se rechazan acá, con el estado en memoria de TenantRegistry.
  */
 @Component
 public class TenantRequestFilter extends OncePerRequestFilter {
@@ -30,6 +33,9 @@ public class TenantRequestFilter extends OncePerRequestFilter {
     @Value("${multitenancy.required:true}")
     private boolean requireTenant;
 
+    @Autowired
+    private TenantRegistry tenantRegistry;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -37,8 +43,7 @@ public class TenantRequestFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         // Las rutas de super-admin no requieren tenant
-        String path = request.getRequestURI();
-        if (path.startsWith("/api/admin/")) {
+        if (!RouteClassifier.classify(request).requiresTenant()) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -51,6 +56,24 @@ public class TenantRequestFilter extends OncePerRequestFilter {
             return;
         }
 
+        // Antes de validar el JWT o tocar la base
+        if (StringUtils.hasText(tenantId)) {
+            switch (tenantRegistry.admit(tenantId)) {
+                case UNKNOWN -> {
+                    response.setStatus(HttpStatus.BAD_REQUEST.value());
+                    response.getWriter().write("{\"error\":\"unknown_tenant\"}");
+                    return;
+                }
+                case SUSPENDED -> {
+                    response.setStatus(HttpStatus.FORBIDDEN.value());
+                    response.getWriter().write("{\"error\":\"tenant_suspended\"}");
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+
         try {
             if (StringUtils.hasText(tenantId)) {
                 TenantContext.setCurrentTenant(tenantId);
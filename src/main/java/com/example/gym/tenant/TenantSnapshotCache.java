@@ -0,0 +1,67 @@
+package com.example.gym.tenant;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Valor inmutable por tenant (ej. switches o credenciales) cargado a demanda y descartado
+ * explícitamente cuando cambia, con un TTL como resguardo.
+ *
+ * Cada tenant tiene una versión: invalidate la sube ya y otra vez después del commit, y un valor
+ * cargado con una versión anterior se considera vencido. Así una lectura concurrente con la
+ * escritura no deja cacheado el valor viejo.
+ */
+public class TenantSnapshotCache<T> {
+
+    private final Function<String, T> loader;
+
+    private final Map<String, CacheItem<T>> cache = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public TenantSnapshotCache(Function<String, T> loader) {
+        this.loader = loader;
+    }
+
+    public T get(String tenantId, long ttlSeconds) {
+        long now = System.currentTimeMillis();
+        // La versión se lee antes de cargar: si cambia mientras tanto, el valor nace vencido
+        long version = versionOf(tenantId).get();
+        CacheItem<T> item = cache.get(tenantId);
+        if (item != null && item.version() == version && item.expiresAt() > now) {
+            return item.value();
+        }
+        T value = loader.apply(tenantId);
+        cache.put(tenantId, new CacheItem<>(value, version, now + ttlSeconds * 1000));
+        return value;
+    }
+
+    public void invalidate(String tenantId) {
+        if (tenantId == null) {
+            return;
+        }
+        Runnable bump = () -> {
+            versionOf(tenantId).incrementAndGet();
+            cache.remove(tenantId);
+        };
+        bump.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump.run();
+                }
+            });
+        }
+    }
+
+    private AtomicLong versionOf(String tenantId) {
+        return versions.computeIfAbsent(tenantId, t -> new AtomicLong());
+    }
+
+    private record CacheItem<T>(T value, long version, long expiresAt) {}
+}
@@ -1,11 +1,18 @@
 package com.example.gym.tenant;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 public interface TenantSwitchRepository extends JpaRepository<TenantSwitch, Long> {
     Optional<TenantSwitch> findByTenantIdAndKey(String tenantId, String key);
 
+    // Varios switches de un gimnasio en una sola consulta (credenciales)
+    List<TenantSwitch> findByTenantIdAndKeyIn(String tenantId, Collection<String> keys);
+
     List<TenantSwitch> findByKey(String key);
+
+    // Todos los switches de un gimnasio (snapshot de TenantSwitchService)
+    List<TenantSwitch> findByTenantId(String tenantId);
 }
@@ -3,20 +3,27 @@ package com.example.gym.tenant;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Switches (feature flags y payloads) del tenant actual, en memoria.
+ *
+ * La primera consulta de un tenant carga todos sus switches con una sola query. Quien escribe un
+ * TenantSwitch llama a invalidate(tenantId), así que el TTL solo es un resguardo (ej. cambios
+ * hechos desde otra instancia o directo en la base).
+ */
 @Service
 public class TenantSwitchService {
 
     private final TenantSwitchRepository repository;
 
-    @Value("${multitenancy.switches.cache-seconds:60}")
+    @Value("${multitenancy.switches.cache-seconds:3600}")
     private long cacheSeconds;
 
-    private final Map<String, CacheItem> cache = new ConcurrentHashMap<>();
+    // tenant -> key -> switch
+    private final TenantSnapshotCache<Map<String, SwitchValue>> snapshots = new TenantSnapshotCache<>(this::load);
 
     public TenantSwitchService(TenantSwitchRepository repository) {
         this.repository = repository;
@@ -27,15 +34,8 @@ public class TenantSwitchService {
         if (tenantId == null || tenantId.isBlank()) {
             return defaultValue;
         }
-        String cacheKey = tenantId + "::" + key;
-        CacheItem item = cache.get(cacheKey);
-        if (item != null && item.expiresAt > Instant.now().getEpochSecond()) {
-            return item.enabled;
-        }
-        Optional<TenantSwitch> sw = repository.findByTenantIdAndKey(tenantId, key);
-        boolean enabled = sw.map(TenantSwitch::isEnabled).orElse(defaultValue);
-        cache.put(cacheKey, new CacheItem(enabled, Instant.now().getEpochSecond() + cacheSeconds));
-        return enabled;
+        SwitchValue value = snapshots.get(tenantId, cacheSeconds).get(key);
+        return value != null ? value.enabled() : defaultValue;
     }
 
     public Optional<String> getPayload(String key) {
@@ -43,8 +43,25 @@ public class TenantSwitchService {
         if (tenantId == null || tenantId.isBlank()) {
             return Optional.empty();
         }
-        return repository.findByTenantIdAndKey(tenantId, key).map(TenantSwitch::getPayload);
+        SwitchValue value = snapshots.get(tenantId, cacheSeconds).get(key);
+        return value != null ? Optional.ofNullable(value.payload()) : Optional.empty();
+    }
+
+    /**
+     * Cambió algún switch del tenant: se descarta ya y otra vez después del commit (si hay
+     * transacción), para que una lectura concurrente no vuelva a cachear el valor anterior.
+     */
+    public void invalidate(String tenantId) {
+        snapshots.invalidate(tenantId);
+    }
+
+    private Map<String, SwitchValue> load(String tenantId) {
+        Map<String, SwitchValue> loaded = new HashMap<>();
+        for (TenantSwitch sw : repository.findByTenantId(tenantId)) {
+            loaded.put(sw.getKey(), new SwitchValue(sw.isEnabled(), sw.getPayload()));
+        }
+        return Map.copyOf(loaded);
     }
 
-    private record CacheItem(boolean enabled, long expiresAt) {}
+    private record SwitchValue(boolean enabled, String payload) {}
 }
@@ -0,0 +1,183 @@
+package com.example.gym.controller;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.model.Schedule;
+import com.example.gym.model.User;
+import com.example.gym.repository.ClosedDateRepository;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("dev")
+@Transactional
+class BulkClosureTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ClosedDateRepository closedDateRepository;
+
+    @BeforeEach
+    void setUpTenant() {
+        TenantContext.setCurrentTenant("t1");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void closingDateRange_cancelsReservationsAndReturnsAffectedUsers() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(3);
+        User member = userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("Closure")
+            .email("closure@test.com")
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+            .dayOfWeek(date.getDayOfWeek().getValue() % 7)
+            .startTime(LocalTime.of(18, 0))
+            .endTime(LocalTime.of(19, 0))
+            .maxCapacity(10)
+            .isActive(true)
+            .repeatWeekly(true)
+            .build());
+
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+            .user(member)
+            .schedule(schedule)
+            .date(date)
+            .status(Reservation.ReservationStatus.CONFIRMED)
+            .build());
+
+        User owner = userRepository.save(User.builder()
+            .firstName("Owner")
+            .lastName("Closure")
+            .email("owner-closure@test.com")
+            .password("secret")
+            .role(User.UserRole.OWNER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            owner,
+            "N/A",
+            List.of(new SimpleGrantedAuthority("ROLE_OWNER"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        mockMvc.perform(post("/api/turnos/closures")
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\":\"" + date + "\",\"to\":\"" + date.plusDays(6) + "\","
+                    + "\"scheduleIds\":[" + schedule.getId() + "],\"reason\":\"Feriado\"}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.closedSlots").value(1))
+            .andExpect(jsonPath("$.cancelledReservations").value(1))
+            .andExpect(jsonPath("$.affectedUserIds", contains(member.getId().intValue())));
+
+        Reservation updated = reservationRepository.findById(reservation.getId()).orElseThrow();
+        assertThat(updated.getStatus()).isEqualTo(Reservation.ReservationStatus.CANCELLED);
+        assertThat(updated.getCancellationReason()).isEqualTo("DATE_CLOSED");
+        assertThat(closedDateRepository.isClosed(schedule.getId(), date)).isTrue();
+    }
+
+    @Test
+    void closingPastDates_isRejectedAndKeepsHistory() throws Exception {
+        LocalDate date = LocalDate.now().minusDays(2);
+        User member = userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("History")
+            .email("history@test.com")
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+            .dayOfWeek(date.getDayOfWeek().getValue() % 7)
+            .startTime(LocalTime.of(18, 0))
+            .endTime(LocalTime.of(19, 0))
+            .maxCapacity(10)
+            .isActive(true)
+            .repeatWeekly(true)
+            .build());
+
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+            .user(member)
+            .schedule(schedule)
+            .date(date)
+            .status(Reservation.ReservationStatus.CONFIRMED)
+            .build());
+
+        User owner = userRepository.save(User.builder()
+            .firstName("Owner")
+            .lastName("History")
+            .email("owner-history@test.com")
+            .password("secret")
+            .role(User.UserRole.OWNER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            owner,
+            "N/A",
+            List.of(new SimpleGrantedAuthority("ROLE_OWNER"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(auth);
+
+        mockMvc.perform(post("/api/turnos/closures")
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"from\":\"" + date + "\",\"to\":\"" + date.plusDays(6) + "\","
+                    + "\"scheduleIds\":[" + schedule.getId() + "],\"reason\":\"Feriado\"}"))
+            .andExpect(status().isBadRequest());
+
+        Reservation unchanged = reservationRepository.findById(reservation.getId()).orElseThrow();
+        assertThat(unchanged.getStatus()).isEqualTo(Reservation.ReservationStatus.CONFIRMED);
+        assertThat(closedDateRepository.isClosed(schedule.getId(), date)).isFalse();
+    }
+}
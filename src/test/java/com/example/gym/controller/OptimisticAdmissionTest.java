@@ -0,0 +1,146 @@
+package com.example.gym.controller;
+
+import com.example.gym.model.Schedule;
+import com.example.gym.model.SlotSeat;
+import com.example.gym.model.User;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.SlotSeatRepository;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "reservation.admission.mode=optimistic")
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("dev")
+@Transactional
+class OptimisticAdmissionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SlotSeatRepository slotSeatRepository;
+
+    @BeforeEach
+    void setUpTenant() {
+        TenantContext.setCurrentTenant("t1");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void lastSeat_isTakenOnceAndCounterSeeded() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(1);
+        Schedule schedule = saveSchedule(date, 1);
+        User first = saveMember("first@test.com");
+        User second = saveMember("second@test.com");
+
+        book(first, schedule, date).andExpect(status().isOk());
+        book(second, schedule, date).andExpect(status().isBadRequest());
+
+        assertThat(reservationRepository.countConfirmedReservationsByScheduleAndDate(schedule.getId(), date)).isEqualTo(1L);
+        List<SlotSeat> seats = slotSeatRepository.findAll();
+        assertThat(seats).hasSize(1);
+        assertThat(seats.get(0).getTaken()).isEqualTo(1);
+        assertThat(seats.get(0).getTenantId()).isEqualTo("t1");
+    }
+
+    @Test
+    void scheduleOfAnotherTenant_isNotBookable() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(1);
+        TenantContext.setCurrentTenant("t2");
+        Schedule foreign = saveSchedule(date, 10);
+        TenantContext.setCurrentTenant("t1");
+        User member = saveMember("member@test.com");
+
+        // Lo que hace TenantRequestFilter en cada request (los filtros están desactivados en el test)
+        entityManager.unwrap(Session.class).enableFilter("tenantFilter").setParameter("tenantId", "t1");
+
+        book(member, foreign, date).andExpect(status().isBadRequest());
+
+        assertThat(reservationRepository.countConfirmedReservationsByScheduleAndDate(foreign.getId(), date)).isZero();
+        assertThat(slotSeatRepository.findAll()).isEmpty();
+    }
+
+    private ResultActions book(User user, Schedule schedule, LocalDate date) throws Exception {
+        UsernamePasswordAuthenticationToken auth = authFor(user);
+        return mockMvc.perform(post("/api/turnos/reservation")
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"scheduleId\":" + schedule.getId() + ",\"date\":\"" + date + "\"}"));
+    }
+
+    private Schedule saveSchedule(LocalDate date, int capacity) {
+        return scheduleRepository.saveAndFlush(Schedule.builder()
+            .dayOfWeek(date.getDayOfWeek().getValue() % 7)
+            .startTime(LocalTime.of(7, 0))
+            .endTime(LocalTime.of(8, 0))
+            .maxCapacity(capacity)
+            .isActive(true)
+            .repeatWeekly(true)
+            .build());
+    }
+
+    private User saveMember(String email) {
+        return userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("Test")
+            .email(email)
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+    }
+
+    private UsernamePasswordAuthenticationToken authFor(User user) {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            user,
+            "N/A",
+            List.of(new SimpleGrantedAuthority("ROLE_MEMBER"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        return auth;
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.gym.controller;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.model.Schedule;
+import com.example.gym.model.User;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("dev")
+@Transactional
+class ReservationListingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @BeforeEach
+    void setUpTenant() {
+        TenantContext.setCurrentTenant("t1");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void pagedListing_followsCursorInDateDescStartTimeAscOrder() throws Exception {
+        LocalDate day1 = LocalDate.of(2030, 3, 4);
+        LocalDate day2 = day1.plusDays(1);
+        User member = userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("Test")
+            .email("listing@test.com")
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+        Schedule early = saveSchedule(day1, LocalTime.of(7, 0));
+        Schedule late = saveSchedule(day1, LocalTime.of(19, 0));
+        Schedule nextDay = saveSchedule(day2, LocalTime.of(9, 0));
+
+        Long first = saveReservation(member, nextDay, day2);
+        Long second = saveReservation(member, early, day1);
+        Long third = saveReservation(member, late, day1);
+
+        UsernamePasswordAuthenticationToken auth = ownerAuth();
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/turnos/reservations")
+                .param("from", day1.toString())
+                .param("to", day2.toString())
+                .param("limit", "2")
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(2);
+        assertThat(ids).containsExactly(first, second, third);
+
+        String export = mockMvc.perform(get("/api/turnos/reservations/export")
+                .param("from", day1.toString())
+                .param("to", day2.toString())
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        JsonNode exported = objectMapper.readTree(export);
+        assertThat(exported.isArray()).isTrue();
+        assertThat(exported.size()).isEqualTo(3);
+        assertThat(exported.get(0).get("id").asLong()).isEqualTo(first);
+    }
+
+    @Test
+    void invalidCursor_returnsBadRequest() throws Exception {
+        UsernamePasswordAuthenticationToken auth = ownerAuth();
+        mockMvc.perform(get("/api/turnos/reservations")
+                .param("cursor", "not-a-cursor")
+                .principal(auth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(auth)))
+            .andExpect(status().isBadRequest());
+    }
+
+    private Schedule saveSchedule(LocalDate day, LocalTime start) {
+        return scheduleRepository.save(Schedule.builder()
+            .dayOfWeek(day.getDayOfWeek().getValue() % 7)
+            .startTime(start)
+            .endTime(start.plusHours(1))
+            .maxCapacity(10)
+            .isActive(true)
+            .repeatWeekly(true)
+            .build());
+    }
+
+    private Long saveReservation(User user, Schedule schedule, LocalDate date) {
+        return reservationRepository.save(Reservation.builder()
+            .user(user)
+            .schedule(schedule)
+            .date(date)
+            .status(Reservation.ReservationStatus.CONFIRMED)
+            .build()).getId();
+    }
+
+    private UsernamePasswordAuthenticationToken ownerAuth() {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            "owner@test.com",
+            "N/A",
+            List.of(new SimpleGrantedAuthority("ROLE_OWNER"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        return auth;
+    }
+}
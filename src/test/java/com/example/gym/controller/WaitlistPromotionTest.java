@@ -0,0 +1,134 @@
+package com.example.gym.controller;
+
+import com.example.gym.model.Reservation;
+import com.example.gym.model.Schedule;
+import com.example.gym.model.User;
+import com.example.gym.model.WaitlistEntry;
+import com.example.gym.repository.ReservationRepository;
+import com.example.gym.repository.ScheduleRepository;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.repository.WaitlistEntryRepository;
+import com.example.gym.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("dev")
+@Transactional
+class WaitlistPromotionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @BeforeEach
+    void setUpTenant() {
+        TenantContext.setCurrentTenant("t1");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cancellingFullSlot_promotesFirstWaitingMember() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(1);
+        User holder = saveMember("holder@test.com");
+        User waiter = saveMember("waiter@test.com");
+
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+            .dayOfWeek(date.getDayOfWeek().getValue() % 7)
+            .startTime(LocalTime.of(7, 0))
+            .endTime(LocalTime.of(8, 0))
+            .maxCapacity(1)
+            .isActive(true)
+            .repeatWeekly(true)
+            .build());
+
+        Reservation reservation = reservationRepository.save(Reservation.builder()
+            .user(holder)
+            .schedule(schedule)
+            .date(date)
+            .status(Reservation.ReservationStatus.CONFIRMED)
+            .build());
+
+        UsernamePasswordAuthenticationToken waiterAuth = authFor(waiter);
+        mockMvc.perform(post("/api/turnos/waitlist")
+                .principal(waiterAuth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(waiterAuth))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"scheduleId\":" + schedule.getId() + ",\"date\":\"" + date + "\"}"))
+            .andExpect(status().isOk());
+
+        UsernamePasswordAuthenticationToken holderAuth = authFor(holder);
+        mockMvc.perform(delete("/api/turnos/reservation/{id}", reservation.getId())
+                .principal(holderAuth)
+                .with(SecurityMockMvcRequestPostProcessors.authentication(holderAuth))
+                .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk());
+
+        Long promoted = reservationRepository.countConfirmedByUserAndScheduleAndDate(waiter.getId(), schedule.getId(), date);
+        assertThat(promoted).isEqualTo(1L);
+        assertThat(reservationRepository.countConfirmedReservationsByScheduleAndDate(schedule.getId(), date)).isEqualTo(1L);
+
+        List<WaitlistEntry> entries = waitlistEntryRepository.findAll();
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getStatus()).isEqualTo(WaitlistEntry.WaitlistStatus.PROMOTED);
+    }
+
+    private User saveMember(String email) {
+        return userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("Test")
+            .email(email)
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+    }
+
+    private UsernamePasswordAuthenticationToken authFor(User user) {
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+            user,
+            "N/A",
+            List.of(new SimpleGrantedAuthority("ROLE_MEMBER"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(auth);
+        return auth;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.gym.security;
+
+import com.example.gym.model.User;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("dev")
+@Transactional
+class TokenRevocationTest {
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUpTenant() {
+        TenantContext.setCurrentTenant("t1");
+    }
+
+    @AfterEach
+    void clearTenant() {
+        TenantContext.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void versionBumpedByAnotherInstance_rejectsOlderToken() throws Exception {
+        User member = userRepository.saveAndFlush(User.builder()
+            .firstName("Member")
+            .lastName("Revoked")
+            .email("revoked@test.com")
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+        String oldToken = jwtUtil.generateToken(member);
+        assertThat(authenticate(oldToken)).isNotNull();
+
+        // Otra instancia revoca: solo cambia la base, el registro de esta instancia no se entera por revoke()
+        member.setTokenVersion(member.getTokenVersion() + 1);
+        member.setTokenRevokedAt(LocalDateTime.now());
+        userRepository.saveAndFlush(member);
+        tokenRevocationRegistry.pollChanges();
+
+        assertThat(authenticate(oldToken)).isNull();
+        assertThat(authenticate(jwtUtil.generateToken(member))).isNotNull();
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/turnos/my-reservations");
+        request.setServletPath("/api/turnos/my-reservations");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
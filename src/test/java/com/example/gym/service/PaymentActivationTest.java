@@ -0,0 +1,132 @@
+package com.example.gym.service;
+
+import com.example.gym.model.MembershipPlan;
+import com.example.gym.model.PaymentRecord;
+import com.example.gym.model.Subscription;
+import com.example.gym.model.User;
+import com.example.gym.model.WebhookEvent;
+import com.example.gym.repository.MembershipPlanRepository;
+import com.example.gym.repository.PaymentRecordRepository;
+import com.example.gym.repository.SubscriptionRepository;
+import com.example.gym.repository.UserRepository;
+import com.example.gym.repository.WebhookEventRepository;
+import com.example.gym.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sin @Transactional: las entregas concurrentes necesitan transacciones reales que hagan commit
+@SpringBootTest
+@ActiveProfiles("dev")
+class PaymentActivationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private WebhookInboxService webhookInboxService;
+
+    @Autowired
+    private PaymentStatusCache paymentStatusCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MembershipPlanRepository planRepository;
+
+    @Autowired
+    private SubscriptionRepository subscriptionRepository;
+
+    @Autowired
+    private PaymentRecordRepository paymentRecordRepository;
+
+    @Autowired
+    private WebhookEventRepository webhookEventRepository;
+
+    private User member;
+    private MembershipPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        TenantContext.setCurrentTenant("t1");
+        member = userRepository.save(User.builder()
+            .firstName("Member")
+            .lastName("Payer")
+            .email("payer-" + System.nanoTime() + "@test.com")
+            .password("secret")
+            .role(User.UserRole.MEMBER)
+            .status(User.UserStatus.ACTIVE)
+            .build());
+        plan = planRepository.save(MembershipPlan.builder()
+            .name("Mensual")
+            .durationMonths(1)
+            .price(1000.0)
+            .daysPerWeek(3)
+            .build());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TenantContext.clear();
+        subscriptionRepository.deleteAll(subscriptionRepository.findByUser(member));
+        paymentRecordRepository.deleteAll(paymentRecordRepository.findByUserIdOrderByCreatedAtDesc(member.getId()));
+        webhookEventRepository.deleteAll();
+        userRepository.delete(member);
+        planRepository.delete(plan);
+    }
+
+    @Test
+    void repeatedDelivery_activatesOnce() {
+        String paymentId = "mp-" + System.nanoTime();
+        String externalRef = "t1:" + member.getId() + ":" + plan.getId();
+
+        paymentService.activateSubscription(externalRef, paymentId);
+        paymentService.activateSubscription(externalRef, paymentId);
+
+        assertThat(paymentService.isPaymentProcessed(paymentId)).isTrue();
+        assertSingleActivation();
+    }
+
+    @Test
+    void concurrentDeliveries_activateOnceAndBothFinish() throws Exception {
+        String paymentId = "mp-" + System.nanoTime();
+        String externalRef = "t1:" + member.getId() + ":" + plan.getId();
+        // Pago aprobado en cache: el worker no consulta MP
+        paymentStatusCache.put(paymentId, Map.of("status", "approved", "external_reference", externalRef));
+
+        // Dos notificaciones del mismo pago que los workers procesan en paralelo
+        webhookInboxService.enqueue(WebhookInboxService.TYPE_PAYMENT, paymentId, "{}");
+        webhookInboxService.enqueue(WebhookInboxService.TYPE_PAYMENT, paymentId, "{}");
+        webhookInboxService.poll();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<WebhookEvent> events = webhookEventRepository.findAll();
+        while (System.currentTimeMillis() < deadline
+                && !events.stream().allMatch(e -> e.getStatus() == WebhookEvent.WebhookStatus.DONE)) {
+            Thread.sleep(100);
+            events = webhookEventRepository.findAll();
+        }
+
+        // La entrega que pierde contra el índice único se toma como ya procesada, no como error
+        assertThat(events).hasSize(2);
+        assertThat(events).allMatch(e -> e.getStatus() == WebhookEvent.WebhookStatus.DONE && e.getLastError() == null);
+        assertSingleActivation();
+    }
+
+    private void assertSingleActivation() {
+        List<PaymentRecord> records = paymentRecordRepository.findByUserIdOrderByCreatedAtDesc(member.getId());
+        assertThat(records).hasSize(1);
+        List<Subscription> subscriptions = subscriptionRepository.findByUser(member);
+        assertThat(subscriptions).hasSize(1);
+        assertThat(subscriptions.get(0).getStatus()).isEqualTo(Subscription.Status.ACTIVE);
+    }
+}